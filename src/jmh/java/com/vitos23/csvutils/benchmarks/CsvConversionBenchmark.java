@@ -0,0 +1,97 @@
+package com.vitos23.csvutils.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.vitos23.csvutils.CsvParser;
+import com.vitos23.csvutils.CsvTable;
+import com.vitos23.csvutils.CsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvConversionBenchmark {
+    @State(Scope.Benchmark)
+    public static class Table {
+        public CsvTable table;
+
+        @Setup(Level.Trial)
+        public void parse(CsvSource source) {
+            table = CsvParser.parse(source.source, source.options());
+        }
+    }
+
+    @Benchmark
+    public String toHtml(CsvSource source, Table table, Processed processed) {
+        String res = table.table.toHtml();
+        processed.add(source);
+        return res;
+    }
+
+    @Benchmark
+    public void writeHtml(CsvSource source, Table table, Processed processed) throws IOException {
+        table.table.writeHtml(Writer.nullWriter());
+        processed.add(source);
+    }
+
+    @Benchmark
+    public JsonArray toJson(CsvSource source, Table table, Processed processed) {
+        JsonArray res = table.table.toJson();
+        processed.add(source);
+        return res;
+    }
+
+    @Benchmark
+    public JsonArray toJsonArrays(CsvSource source, Table table, Processed processed) {
+        JsonArray res = table.table.toJsonArrays();
+        processed.add(source);
+        return res;
+    }
+
+    @Benchmark
+    public JsonObject toJsonColumnArray(CsvSource source, Table table, Processed processed) {
+        JsonObject res = table.table.toJsonColumnArray();
+        processed.add(source);
+        return res;
+    }
+
+    @Benchmark
+    public void writeJson(CsvSource source, Table table, Processed processed) throws IOException {
+        table.table.writeJson(Writer.nullWriter());
+        processed.add(source);
+    }
+
+    @Benchmark
+    public void writeJsonArrays(CsvSource source, Table table, Processed processed) throws IOException {
+        table.table.writeJsonArrays(Writer.nullWriter());
+        processed.add(source);
+    }
+
+    @Benchmark
+    public void writeJsonColumnArray(CsvSource source, Table table, Processed processed) throws IOException {
+        table.table.writeJsonColumnArray(Writer.nullWriter());
+        processed.add(source);
+    }
+
+    @Benchmark
+    public void writeCsv(CsvSource source, Table table, Processed processed) throws IOException {
+        new CsvWriter(Writer.nullWriter(), source.shape.getDelimiter()).writeTable(table.table);
+        processed.add(source);
+    }
+}
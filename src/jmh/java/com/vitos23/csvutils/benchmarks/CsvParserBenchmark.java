@@ -0,0 +1,89 @@
+package com.vitos23.csvutils.benchmarks;
+
+import com.vitos23.csvutils.CsvParser;
+import com.vitos23.csvutils.CsvReader;
+import com.vitos23.csvutils.CsvTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+    @Benchmark
+    public CsvTable parse(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.source, source.options());
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseLazyCells(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.source, source.options().setLazyCells(true));
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseInferTypes(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.source, source.options().setInferTypes(true));
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseDictionaryEncoding(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.source, source.options().setDictionaryEncoding(1024));
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseFirstColumn(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.source, source.options().setColumns(0));
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseFiltered(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.source, source.options().addFilter(2, "FAILED"::contentEquals));
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseBytes(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.bytes, source.options());
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public CsvTable parseBytesLazyCells(CsvSource source, Processed processed) {
+        CsvTable table = CsvParser.parse(source.bytes, source.options().setLazyCells(true));
+        processed.add(source);
+        return table;
+    }
+
+    @Benchmark
+    public long readRows(CsvSource source, Processed processed) {
+        long cells = 0;
+        CsvReader reader = new CsvReader(new StringReader(source.source), true, source.shape.getDelimiter());
+        while (reader.hasNext()) {
+            cells += reader.next().length;
+        }
+        processed.add(source);
+        return cells;
+    }
+}
@@ -0,0 +1,41 @@
+package com.vitos23.csvutils.benchmarks;
+
+import com.vitos23.csvutils.CsvParseOptions;
+import com.vitos23.csvutils.CsvParser;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generated csv table shared by benchmark threads. Sizes up to 1GB can be passed with
+ * {@code -p size=1GB}, the benchmark JVM then needs a large heap, e.g. {@code -jvmArgsAppend -Xmx16g}.
+ */
+@State(Scope.Benchmark)
+public class CsvSource {
+    @Param({"NARROW", "WIDE", "QUOTED", "MULTILINE", "SEMICOLON", "TAB"})
+    public Datasets.Shape shape;
+
+    @Param({"1KB", "1MB", "64MB"})
+    public String size;
+
+    public String source;
+    public byte[] bytes;
+    public int rows;
+    public double megabytes;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        source = Datasets.generate(shape, Datasets.parseSize(size));
+        bytes = source.getBytes(StandardCharsets.UTF_8);
+        rows = CsvParser.parse(source, options()).getHeight();
+        megabytes = source.length() / 1e6;
+    }
+
+    public CsvParseOptions options() {
+        return new CsvParseOptions().setHeader(true).setDelimiter(shape.getDelimiter());
+    }
+}
@@ -0,0 +1,124 @@
+package com.vitos23.csvutils.benchmarks;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates csv tables of different shapes for benchmarks
+ */
+public class Datasets {
+    private static final String[] WORDS = {
+            "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet"
+    };
+    private static final String[] STATUSES = {"ACTIVE", "FAILED", "PENDING", "DONE"};
+
+    /**
+     * Shape of generated table
+     */
+    public enum Shape {
+        /** 8 columns of numbers, words and statuses */
+        NARROW(8, ","),
+        /** 120 columns */
+        WIDE(120, ","),
+        /** every cell is quoted, some cells contain delimiters and escaped quotes */
+        QUOTED(8, ","),
+        /** quoted cells, some of them span several lines */
+        MULTILINE(8, ","),
+        /** narrow table separated by semicolons */
+        SEMICOLON(8, ";"),
+        /** narrow table separated by tabs */
+        TAB(8, "\t");
+
+        private final int width;
+        private final String delimiter;
+
+        Shape(int width, String delimiter) {
+            this.width = width;
+            this.delimiter = delimiter;
+        }
+
+        public String getDelimiter() {
+            return delimiter;
+        }
+    }
+
+    /**
+     * Parses size such as "1KB", "64MB" or "1GB"
+     */
+    public static long parseSize(String size) {
+        String s = size.trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (s.endsWith("KB")) {
+            multiplier = 1L << 10;
+        } else if (s.endsWith("MB")) {
+            multiplier = 1L << 20;
+        } else if (s.endsWith("GB")) {
+            multiplier = 1L << 30;
+        }
+        if (multiplier != 1) {
+            s = s.substring(0, s.length() - 2);
+        }
+        return Long.parseLong(s) * multiplier;
+    }
+
+    /**
+     * Generates a table with header of at least given number of characters
+     */
+    public static String generate(Shape shape, long size) {
+        if (size > Integer.MAX_VALUE - 1024) {
+            throw new IllegalArgumentException("Table of " + size + " characters doesn't fit in a string");
+        }
+        Random random = new Random(23);
+        StringBuilder res = new StringBuilder((int) size + 1024);
+        for (int col = 0; col < shape.width; col++) {
+            if (col > 0) {
+                res.append(shape.delimiter);
+            }
+            res.append("column").append(col);
+        }
+        res.append('\n');
+        for (long row = 0; res.length() < size; row++) {
+            for (int col = 0; col < shape.width; col++) {
+                if (col > 0) {
+                    res.append(shape.delimiter);
+                }
+                appendCell(res, shape, row, col, random);
+            }
+            res.append('\n');
+        }
+        return res.toString();
+    }
+
+    private static void appendCell(StringBuilder res, Shape shape, long row, int col, Random random) {
+        String val;
+        switch (col % 4) {
+            case 0:
+                val = Long.toString(row * 31 + col);
+                break;
+            case 1:
+                val = Double.toString(random.nextInt(1_000_000) / 100.0);
+                break;
+            case 2:
+                val = STATUSES[random.nextInt(STATUSES.length)];
+                break;
+            default:
+                val = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        }
+        switch (shape) {
+            case QUOTED:
+                if (random.nextInt(4) == 0) {
+                    val = val + ", \"" + WORDS[random.nextInt(WORDS.length)] + "\"";
+                }
+                res.append('"').append(val.replace("\"", "\"\"")).append('"');
+                break;
+            case MULTILINE:
+                if (random.nextInt(4) == 0) {
+                    val = val + "\n" + WORDS[random.nextInt(WORDS.length)];
+                }
+                res.append('"').append(val).append('"');
+                break;
+            default:
+                res.append(val);
+        }
+    }
+}
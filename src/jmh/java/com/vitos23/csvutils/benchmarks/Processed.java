@@ -0,0 +1,28 @@
+package com.vitos23.csvutils.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counters of processed data. JMH reports them per second, i.e. as MB/s and rows/s.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Processed {
+    public double megabytes;
+    public long rows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        rows = 0;
+    }
+
+    void add(CsvSource source) {
+        megabytes += source.megabytes;
+        rows += source.rows;
+    }
+}
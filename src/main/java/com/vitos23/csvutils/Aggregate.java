@@ -0,0 +1,82 @@
+package com.vitos23.csvutils;
+
+import java.util.Locale;
+
+/**
+ * <p>Aggregate function computed for every group by {@link CsvTable#groupBy(int[], Aggregate...)}.</p>
+ * <p>Functions over columns read cells as numbers, empty cells are skipped. Sums, minimums and maximums of
+ * integers are written without fraction, averages are always written as doubles. A group without
+ * non-empty cells gets an empty cell.</p>
+ */
+public final class Aggregate {
+    enum Kind {
+        COUNT, SUM, MIN, MAX, AVG
+    }
+
+    private final Kind kind;
+    private final int col;
+
+    private Aggregate(Kind kind, int col) {
+        this.kind = kind;
+        this.col = col;
+    }
+
+    /**
+     * Returns function that counts rows in group. Its column is named "count"
+     * @return count function
+     */
+    public static Aggregate count() {
+        return new Aggregate(Kind.COUNT, -1);
+    }
+
+    /**
+     * Returns function that sums values of the column. Its column is named "sum(column header)"
+     * @param col is index of column
+     * @return sum function
+     */
+    public static Aggregate sum(int col) {
+        return new Aggregate(Kind.SUM, col);
+    }
+
+    /**
+     * Returns function that finds the minimum value of the column. Its column is named "min(column header)"
+     * @param col is index of column
+     * @return min function
+     */
+    public static Aggregate min(int col) {
+        return new Aggregate(Kind.MIN, col);
+    }
+
+    /**
+     * Returns function that finds the maximum value of the column. Its column is named "max(column header)"
+     * @param col is index of column
+     * @return max function
+     */
+    public static Aggregate max(int col) {
+        return new Aggregate(Kind.MAX, col);
+    }
+
+    /**
+     * Returns function that computes the average value of the column. Its column is named "avg(column header)"
+     * @param col is index of column
+     * @return avg function
+     */
+    public static Aggregate avg(int col) {
+        return new Aggregate(Kind.AVG, col);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    int getColumn() {
+        return col;
+    }
+
+    String getName(String[] headers) {
+        if (kind == Kind.COUNT) {
+            return "count";
+        }
+        return kind.name().toLowerCase(Locale.ROOT) + "(" + headers[col] + ")";
+    }
+}
@@ -0,0 +1,47 @@
+package com.vitos23.csvutils;
+
+/**
+ * Stores cells as a two-dimensional array of strings
+ */
+class ArrayStorage implements TableStorage {
+    private final String[][] table;
+
+    ArrayStorage(String[][] table) {
+        this.table = table;
+    }
+
+    @Override
+    public int getWidth() {
+        if (table.length == 0) {
+            return 0;
+        }
+        return table[0].length;
+    }
+
+    @Override
+    public int getHeight() {
+        return table.length;
+    }
+
+    @Override
+    public String get(int row, int col) {
+        return table[row][col];
+    }
+
+    @Override
+    public void set(int row, int col, String val) {
+        table[row][col] = val;
+    }
+
+    @Override
+    public long estimateBytes() {
+        long res = MemoryEstimate.array(table.length, MemoryEstimate.REFERENCE);
+        for (String[] row : table) {
+            res += MemoryEstimate.array(row.length, MemoryEstimate.REFERENCE);
+            for (String val : row) {
+                res += MemoryEstimate.string(val);
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,288 @@
+package com.vitos23.csvutils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * <p>Parses many UTF-8 csv files, possibly compressed, and converts them into json or html concurrently. Every file
+ * is handled by its own task: the file is parsed while it is read, and the table is converted straight into
+ * the result file next to it (or in the output directory) with the extension replaced by the extension
+ * of the format. Failure of a file is reported in its result and doesn't stop other files.</p>
+ * <p>Tasks run on virtual threads when the runtime has them (Java 21+) and on a fixed pool of platform threads
+ * otherwise. Parsing and converting run on at most {@link #setParallelism(int)} tasks at a time, only their
+ * tables are held in memory. Not more than {@link #setMaxPending(int)} files are in flight.</p>
+ * <pre>{@code
+ * List<BatchConverter.Result> results = new BatchConverter(new CsvParseOptions().setHeader(true),
+ *         CsvConversionMetrics.Format.JSON).convertDirectory(Path.of("drops"));
+ * }</pre>
+ */
+public class BatchConverter {
+    private final CsvParseOptions options;
+    private final CsvConversionMetrics.Format format;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxPending = 4 * parallelism;
+    private Path outputDirectory;
+
+    /**
+     * Creates a converter of csv files
+     * @param options are options of parsing, shared by all files
+     * @param format is a format to convert tables into
+     */
+    public BatchConverter(CsvParseOptions options, CsvConversionMetrics.Format format) {
+        this.options = options;
+        this.format = format;
+    }
+
+    /**
+     * Sets the maximum number of files parsed and converted at a time. Default is the number of processors
+     * @param parallelism is the maximum number of files parsed and converted at a time
+     * @return this converter
+     * @throws IllegalArgumentException if parallelism isn't positive
+     */
+    public BatchConverter setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of files that are read, parsed, converted or written at a time. Next files are
+     * started only when some of them are finished. Default is 4 times the number of processors
+     * @param maxPending is the maximum number of files in flight
+     * @return this converter
+     * @throws IllegalArgumentException if maxPending isn't positive
+     */
+    public BatchConverter setMaxPending(int maxPending) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("Number of pending files should be positive: " + maxPending);
+        }
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    /**
+     * Sets a directory to write results into. By default results are written next to source files
+     * @param outputDirectory is a directory to write results into or null to write them next to source files
+     * @return this converter
+     */
+    public BatchConverter setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        return this;
+    }
+
+    /**
+     * Converts all files with .csv, .csv.gz or .zip extension in the directory, subdirectories aren't visited
+     * @param directory is a directory with csv files
+     * @return results of files ordered by file name
+     * @throws IOException if the directory can't be listed
+     */
+    public List<Result> convertDirectory(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{csv,csv.gz,zip}")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return convert(files);
+    }
+
+    /**
+     * Converts given files
+     * @param files are paths to csv files, possibly compressed, see {@link CsvParser#parse(Path, CsvParseOptions)}
+     * @return results of files in the same order
+     * @throws IllegalStateException if the thread is interrupted while waiting for files
+     */
+    public List<Result> convert(List<Path> files) {
+        Semaphore pending = new Semaphore(maxPending);
+        Semaphore converting = new Semaphore(parallelism);
+        ExecutorService executor = newExecutor();
+        List<Future<Result>> futures = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                pending.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return convert(file, converting);
+                    } finally {
+                        pending.release();
+                    }
+                }));
+            }
+            List<Result> results = new ArrayList<>(futures.size());
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch conversion was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per task if the runtime supports them, otherwise a pool
+     * with a platform thread for every pending file
+     */
+    private ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(maxPending, runnable -> {
+                Thread thread = new Thread(runnable, "csv-batch-converter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private Result convert(Path file, Semaphore converting) throws InterruptedException {
+        long start = System.nanoTime();
+        Path output = outputOf(file);
+        int rows;
+        converting.acquire();
+        try {
+            CsvTable table = CsvParser.parse(file, options);
+            rows = table.getHeight();
+            try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                convert(table, out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(output);
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            return new Result(file, output, -1, System.nanoTime() - start, e);
+        } finally {
+            converting.release();
+        }
+        return new Result(file, output, rows, System.nanoTime() - start, null);
+    }
+
+    private void convert(CsvTable table, Writer out) throws IOException {
+        switch (format) {
+            case HTML:
+                table.writeHtml(out);
+                break;
+            case JSON:
+                table.writeJson(out);
+                break;
+            case JSON_ARRAYS:
+                table.writeJsonArrays(out);
+                break;
+            default:
+                table.writeJsonColumnArray(out);
+                break;
+        }
+    }
+
+    private Path outputOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        int dot = name.lastIndexOf('.');
+        String extension = format == CsvConversionMetrics.Format.HTML ? ".html" : ".json";
+        name = (dot > 0 ? name.substring(0, dot) : name) + extension;
+        Path directory = outputDirectory != null ? outputDirectory : file.toAbsolutePath().getParent();
+        return directory.resolve(name);
+    }
+
+    /**
+     * Result of converting one file
+     */
+    public static final class Result {
+        private final Path source;
+        private final Path output;
+        private final int rows;
+        private final long nanos;
+        private final Exception error;
+
+        private Result(Path source, Path output, int rows, long nanos, Exception error) {
+            this.source = source;
+            this.output = output;
+            this.rows = rows;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        /**
+         * Returns path to the csv file
+         * @return path to the source file
+         */
+        public Path getSource() {
+            return source;
+        }
+
+        /**
+         * Returns path to the converted file. It may not exist if conversion failed
+         * @return path to the output file
+         */
+        public Path getOutput() {
+            return output;
+        }
+
+        /**
+         * Returns true if the file is converted and written
+         * @return if conversion succeeded
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * Returns number of rows in the table or -1 if conversion failed
+         * @return number of rows
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * Returns time spent on the file in nanoseconds including waiting for a parsing slot
+         * @return conversion time
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the reason of failure, e.g. {@link IOException} or
+         * {@link com.vitos23.csvutils.exceptions.ParseException}, or null if conversion succeeded
+         * @return the reason of failure
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return isSuccess()
+                    ? String.format("Result{source=%s, output=%s, rows=%d, nanos=%d}", source, output, rows, nanos)
+                    : String.format("Result{source=%s, error=%s}", source, error);
+        }
+    }
+}
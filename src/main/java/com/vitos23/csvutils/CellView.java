@@ -0,0 +1,41 @@
+package com.vitos23.csvutils;
+
+/**
+ * Character sequence over a part of a char array. Lets predicates look at a cell in the lexer
+ * buffer without creating a string.
+ */
+final class CellView implements CharSequence {
+    private char[] chars;
+    private int start;
+    private int length;
+
+    CellView set(char[] chars, int start, int end) {
+        this.chars = chars;
+        this.start = start;
+        this.length = end - start;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return chars[start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, start, length);
+    }
+}
@@ -0,0 +1,231 @@
+package com.vitos23.csvutils;
+
+import java.util.Arrays;
+
+/**
+ * <p>Growable storage of rows kept in chunks of {@link #CHUNK_SIZE} rows. Appending a row takes amortized
+ * constant time and never copies rows, only the small array of chunks is reallocated.</p>
+ * <p>Every chunk is a ring buffer, so deleting a row shifts rows only inside its chunk and moves one row
+ * from the head of every following chunk to the tail of the previous one. All chunks except the last one
+ * are full, so a cell is found in constant time.</p>
+ * <p>Columns are mapped to slots of row arrays. An added column takes a new slot that rows created before
+ * have no room for, they read the fill value of the slot until the cell is set. A removed column leaves
+ * an unused slot, rows are compacted when unused slots outnumber columns.</p>
+ */
+final class ChunkedStorage implements TableStorage {
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int MASK = CHUNK_SIZE - 1;
+    private static final int MIN_FIRST_CHUNK = 16;
+
+    private String[][][] chunks = new String[1][][];
+    private int[] offsets = new int[1];
+    private int height;
+    private int[] columns;
+    private String[] fills;
+    private int slots;
+
+    ChunkedStorage(int width) {
+        setWidth(width);
+    }
+
+    private void setWidth(int width) {
+        columns = new int[width];
+        for (int col = 0; col < width; col++) {
+            columns[col] = col;
+        }
+        fills = new String[width];
+        slots = width;
+    }
+
+    @Override
+    public int getWidth() {
+        return columns.length;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    private String[] row(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        return chunks[chunk][(offsets[chunk] + row) & MASK];
+    }
+
+    @Override
+    public String get(int row, int col) {
+        String[] cells = row(row);
+        int slot = columns[col];
+        return slot < cells.length ? cells[slot] : fills[slot];
+    }
+
+    @Override
+    public void set(int row, int col, String val) {
+        int chunk = row >>> CHUNK_SHIFT;
+        int pos = (offsets[chunk] + row) & MASK;
+        String[] cells = chunks[chunk][pos];
+        int slot = columns[col];
+        if (slot >= cells.length) {
+            int length = cells.length;
+            cells = Arrays.copyOf(cells, slots);
+            System.arraycopy(fills, length, cells, length, slots - length);
+            chunks[chunk][pos] = cells;
+        }
+        cells[slot] = val;
+    }
+
+    /**
+     * Appends the row. The array is kept by the storage if its cells are already in slots of columns
+     * @param row has a cell for every column, sets the width if the storage has neither rows nor columns
+     */
+    void appendRow(String[] row) {
+        if (height == 0 && columns.length == 0) {
+            setWidth(row.length);
+        }
+        int chunk = height >>> CHUNK_SHIFT;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunk * 2);
+            offsets = Arrays.copyOf(offsets, chunk * 2);
+        }
+        String[][] rows = chunks[chunk];
+        int pos = height & MASK;
+        if (rows == null) {
+            rows = new String[chunk == 0 ? MIN_FIRST_CHUNK : CHUNK_SIZE][];
+            chunks[chunk] = rows;
+            offsets[chunk] = 0;
+        } else if (pos == rows.length) {
+            // only the first chunk grows, its offset is always 0
+            rows = Arrays.copyOf(rows, Math.min(rows.length * 2, CHUNK_SIZE));
+            chunks[chunk] = rows;
+        }
+        rows[(offsets[chunk] + pos) & MASK] = toSlots(row);
+        height++;
+    }
+
+    private String[] toSlots(String[] row) {
+        if (slots == columns.length && isIdentity()) {
+            return row;
+        }
+        String[] cells = Arrays.copyOf(fills, slots);
+        for (int col = 0; col < columns.length; col++) {
+            cells[columns[col]] = row[col];
+        }
+        return cells;
+    }
+
+    private boolean isIdentity() {
+        for (int col = 0; col < columns.length; col++) {
+            if (columns[col] != col) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the row and shifts the following rows up
+     */
+    void deleteRow(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        int last = (height - 1) >>> CHUNK_SHIFT;
+        int end = chunk == last ? ((height - 1) & MASK) + 1 : CHUNK_SIZE;
+        String[][] rows = chunks[chunk];
+        int offset = offsets[chunk];
+        for (int i = row & MASK; i < end - 1; i++) {
+            rows[(offset + i) & MASK] = rows[(offset + i + 1) & MASK];
+        }
+        rows[(offset + end - 1) & MASK] = null;
+        for (int next = chunk + 1; next <= last; next++) {
+            String[][] nextRows = chunks[next];
+            chunks[next - 1][(offsets[next - 1] + CHUNK_SIZE - 1) & MASK] = nextRows[offsets[next]];
+            nextRows[offsets[next]] = null;
+            offsets[next] = (offsets[next] + 1) & MASK;
+        }
+        height--;
+        if (last > 0 && (height & MASK) == 0) {
+            chunks[last] = null;
+        }
+    }
+
+    /**
+     * Appends a column with the same value in all rows
+     */
+    void addColumn(String val) {
+        if (slots == fills.length) {
+            fills = Arrays.copyOf(fills, Math.max(4, slots * 2));
+        }
+        fills[slots] = val;
+        columns = Arrays.copyOf(columns, columns.length + 1);
+        columns[columns.length - 1] = slots++;
+    }
+
+    /**
+     * Removes the column and shifts the following columns left
+     */
+    void removeColumn(int col) {
+        int[] res = new int[columns.length - 1];
+        System.arraycopy(columns, 0, res, 0, col);
+        System.arraycopy(columns, col + 1, res, col, res.length - col);
+        columns = res;
+        if (slots - columns.length > Math.max(columns.length, 4)) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves cells of all rows into slots equal to indices of their columns and drops unused slots
+     */
+    private void compact() {
+        for (int row = 0; row < height; row++) {
+            int chunk = row >>> CHUNK_SHIFT;
+            int pos = (offsets[chunk] + row) & MASK;
+            String[] cells = chunks[chunk][pos];
+            String[] res = new String[columns.length];
+            for (int col = 0; col < columns.length; col++) {
+                int slot = columns[col];
+                res[col] = slot < cells.length ? cells[slot] : fills[slot];
+            }
+            chunks[chunk][pos] = res;
+        }
+        setWidth(columns.length);
+    }
+
+    @Override
+    public long estimateBytes() {
+        long res = MemoryEstimate.array(chunks.length, MemoryEstimate.REFERENCE)
+                + MemoryEstimate.array(offsets.length, Integer.BYTES)
+                + MemoryEstimate.array(columns.length, Integer.BYTES)
+                + MemoryEstimate.array(fills.length, MemoryEstimate.REFERENCE);
+        for (String[][] rows : chunks) {
+            if (rows != null) {
+                res += MemoryEstimate.array(rows.length, MemoryEstimate.REFERENCE);
+            }
+        }
+        for (int row = 0; row < height; row++) {
+            String[] cells = row(row);
+            res += MemoryEstimate.array(cells.length, MemoryEstimate.REFERENCE);
+            for (String val : cells) {
+                res += MemoryEstimate.string(val);
+            }
+        }
+        for (String val : fills) {
+            res += MemoryEstimate.string(val);
+        }
+        return res;
+    }
+
+    static class Builder implements TableStorage.Builder<RowLexer> {
+        private final ChunkedStorage storage = new ChunkedStorage(0);
+
+        @Override
+        public void addRow(RowLexer lexer) {
+            storage.appendRow(lexer.getRow());
+        }
+
+        @Override
+        public TableStorage build() {
+            return storage;
+        }
+    }
+}
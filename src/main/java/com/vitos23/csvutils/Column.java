@@ -0,0 +1,836 @@
+package com.vitos23.csvutils;
+
+import java.util.Arrays;
+
+/**
+ * <p>Column of {@link ColumnarStorage}. Primitive columns keep values in a primitive array and mark empty cells
+ * in a null bitmap.</p>
+ * <p>A value is stored in a primitive column only if its text can be restored from the primitive exactly,
+ * e.g. "1.50" isn't stored as double because it would be read back as "1.5". Values that don't fit
+ * the column type make the column wider (int to long) or turn it into a string column.</p>
+ */
+abstract class Column {
+    private static final int INITIAL_CAPACITY = 16;
+
+    abstract int size();
+
+    abstract String get(int row);
+
+    /**
+     * Returns estimated number of bytes retained by the column
+     */
+    abstract long estimateBytes();
+
+    /**
+     * Sets a new value
+     * @return false if value doesn't fit column type
+     */
+    abstract boolean set(int row, String val);
+
+    /**
+     * Appends value of cell of the current lexer row
+     * @return false if value doesn't fit column type
+     */
+    abstract boolean append(CsvLexer lexer, int cell);
+
+    /**
+     * Returns a column that holds the same values and accepts value of given cell of the current lexer row
+     */
+    Column widen(CsvLexer lexer, int cell) {
+        return toStrings();
+    }
+
+    Strings toStrings() {
+        String[] values = new String[Math.max(size(), INITIAL_CAPACITY)];
+        for (int row = 0; row < size(); row++) {
+            values[row] = get(row);
+        }
+        return new Strings(values, size());
+    }
+
+    boolean isEmptyAt(int row) {
+        String val = get(row);
+        return val == null || val.isEmpty();
+    }
+
+    int getInt(int row) {
+        return Integer.parseInt(get(row));
+    }
+
+    long getLong(int row) {
+        return Long.parseLong(get(row));
+    }
+
+    /**
+     * Returns true if the non-empty value is a long, see {@link #isLong(String)}
+     */
+    boolean isLong(int row) {
+        return isLong(get(row));
+    }
+
+    double getDouble(int row) {
+        return Double.parseDouble(get(row));
+    }
+
+    boolean getBoolean(int row) {
+        return Boolean.parseBoolean(get(row));
+    }
+
+    /**
+     * Returns true if chars form an integer in the form produced by {@link Long#toString(long)}
+     */
+    static boolean isCanonicalLong(char[] buf, int start, int end) {
+        int i = start;
+        if (i < end && buf[i] == '-') {
+            i++;
+        }
+        if (i == end || buf[i] == '0' && (end - start != 1)) {
+            return false;
+        }
+        if (end - i > 19) {
+            return false;
+        }
+        for (int j = i; j < end; j++) {
+            if (buf[j] < '0' || buf[j] > '9') {
+                return false;
+            }
+        }
+        if (end - i == 19) {
+            String max = i == start ? "9223372036854775807" : "9223372036854775808";
+            for (int j = 0; j < 19; j++) {
+                if (buf[i + j] != max.charAt(j)) {
+                    return buf[i + j] < max.charAt(j);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the string is accepted by {@link Long#parseLong(String)} with ASCII digits,
+     * so that numbers can be told from other values without catching exceptions
+     */
+    static boolean isLong(String s) {
+        int i = 0;
+        if (!s.isEmpty() && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            i++;
+        }
+        if (i == s.length()) {
+            return false;
+        }
+        while (i < s.length() - 1 && s.charAt(i) == '0') {
+            i++;
+        }
+        int digits = s.length() - i;
+        if (digits > 19) {
+            return false;
+        }
+        for (int j = i; j < s.length(); j++) {
+            if (s.charAt(j) < '0' || s.charAt(j) > '9') {
+                return false;
+            }
+        }
+        if (digits == 19) {
+            String max = s.charAt(0) == '-' ? "9223372036854775808" : "9223372036854775807";
+            return s.substring(i).compareTo(max) <= 0;
+        }
+        return true;
+    }
+
+    /**
+     * Parses chars that are checked by {@link #isCanonicalLong(char[], int, int)}
+     */
+    static long parseLong(char[] buf, int start, int end) {
+        boolean negative = buf[start] == '-';
+        long res = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            res = res * 10 - (buf[i] - '0');
+        }
+        return negative ? res : -res;
+    }
+
+    static boolean isCanonicalDouble(String s) {
+        if (s.isEmpty() || !(s.charAt(0) == '-' || '0' <= s.charAt(0) && s.charAt(0) <= '9')) {
+            return false;
+        }
+        try {
+            return Double.toString(Double.parseDouble(s)).equals(s);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isEmpty(CsvLexer lexer, int cell) {
+        return lexer.getBufferStart(cell) == lexer.getBufferEnd(cell);
+    }
+
+    /**
+     * Column that has only empty cells so far
+     */
+    static final class Nulls extends Column {
+        private int size;
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        String get(int row) {
+            return "";
+        }
+
+        @Override
+        long estimateBytes() {
+            return MemoryEstimate.OBJECT_HEADER;
+        }
+
+        @Override
+        boolean isEmptyAt(int row) {
+            return true;
+        }
+
+        @Override
+        boolean set(int row, String val) {
+            return val != null && val.isEmpty();
+        }
+
+        @Override
+        boolean append(CsvLexer lexer, int cell) {
+            if (!isEmpty(lexer, cell)) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        @Override
+        Column widen(CsvLexer lexer, int cell) {
+            Primitive[] candidates = {new Ints(size), new Longs(size), new Doubles(size), new Booleans(size)};
+            for (Primitive candidate : candidates) {
+                if (candidate.accepts(lexer, cell)) {
+                    return candidate;
+                }
+            }
+            return toStrings();
+        }
+    }
+
+    /**
+     * Column of primitive values with a bitmap of empty cells
+     */
+    abstract static class Primitive extends Column {
+        private long[] nulls;
+        int size;
+
+        Primitive(int nullCount) {
+            nulls = new long[(Math.max(nullCount, INITIAL_CAPACITY) + 63) >>> 6];
+            size = nullCount;
+            for (int row = 0; row < nullCount; row++) {
+                setNull(row, true);
+            }
+        }
+
+        @Override
+        final int size() {
+            return size;
+        }
+
+        final void copyNulls(Primitive other) {
+            nulls = Arrays.copyOf(other.nulls, other.nulls.length);
+            size = other.size;
+        }
+
+        final boolean isNull(int row) {
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        private void setNull(int row, boolean isNull) {
+            if (isNull) {
+                nulls[row >>> 6] |= 1L << row;
+            } else {
+                nulls[row >>> 6] &= ~(1L << row);
+            }
+        }
+
+        abstract int capacity();
+
+        abstract int elementBytes();
+
+        abstract void grow(int capacity);
+
+        @Override
+        final long estimateBytes() {
+            return MemoryEstimate.OBJECT_HEADER + MemoryEstimate.array(nulls.length, Long.BYTES)
+                    + MemoryEstimate.array(capacity(), elementBytes());
+        }
+
+        /**
+         * Stores value of the cell at given row
+         * @return false if value doesn't fit column type
+         */
+        abstract boolean store(int row, CsvLexer lexer, int cell);
+
+        abstract boolean store(int row, String val);
+
+        abstract String format(int row);
+
+        @Override
+        final String get(int row) {
+            return isNull(row) ? "" : format(row);
+        }
+
+        @Override
+        final boolean isEmptyAt(int row) {
+            return isNull(row);
+        }
+
+        @Override
+        final boolean set(int row, String val) {
+            if (val == null) {
+                return false;
+            }
+            if (val.isEmpty()) {
+                setNull(row, true);
+                return true;
+            }
+            if (!store(row, val)) {
+                return false;
+            }
+            setNull(row, false);
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == capacity()) {
+                int capacity = size * 2;
+                grow(capacity);
+                nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+            }
+        }
+
+        /**
+         * Returns true if value of the cell fits column type
+         */
+        final boolean accepts(CsvLexer lexer, int cell) {
+            ensureCapacity();
+            return isEmpty(lexer, cell) || !lexer.hasEscapedQuotes(cell) && store(size, lexer, cell);
+        }
+
+        @Override
+        final boolean append(CsvLexer lexer, int cell) {
+            ensureCapacity();
+            if (isEmpty(lexer, cell)) {
+                setNull(size++, true);
+                return true;
+            }
+            if (lexer.hasEscapedQuotes(cell) || !store(size, lexer, cell)) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        final void checkNotNull(int row) {
+            if (isNull(row)) {
+                throw new NumberFormatException("Cell is empty");
+            }
+        }
+    }
+
+    static final class Ints extends Primitive {
+        private int[] values;
+
+        Ints(int nullCount) {
+            super(nullCount);
+            values = new int[Math.max(nullCount, INITIAL_CAPACITY)];
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        int elementBytes() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        boolean store(int row, CsvLexer lexer, int cell) {
+            char[] buf = lexer.getBuffer();
+            int start = lexer.getBufferStart(cell);
+            int end = lexer.getBufferEnd(cell);
+            if (!isCanonicalLong(buf, start, end)) {
+                return false;
+            }
+            long val = parseLong(buf, start, end);
+            if (val != (int) val) {
+                return false;
+            }
+            values[row] = (int) val;
+            return true;
+        }
+
+        @Override
+        boolean store(int row, String val) {
+            char[] chars = val.toCharArray();
+            if (!isCanonicalLong(chars, 0, chars.length)) {
+                return false;
+            }
+            long parsed = parseLong(chars, 0, chars.length);
+            if (parsed != (int) parsed) {
+                return false;
+            }
+            values[row] = (int) parsed;
+            return true;
+        }
+
+        @Override
+        String format(int row) {
+            return Integer.toString(values[row]);
+        }
+
+        @Override
+        Column widen(CsvLexer lexer, int cell) {
+            if (lexer.hasEscapedQuotes(cell) || !isCanonicalLong(
+                    lexer.getBuffer(), lexer.getBufferStart(cell), lexer.getBufferEnd(cell))) {
+                return toStrings();
+            }
+            Longs longs = new Longs(0);
+            longs.grow(values.length);
+            for (int row = 0; row < size; row++) {
+                longs.values[row] = values[row];
+            }
+            longs.copyNulls(this);
+            return longs;
+        }
+
+        @Override
+        int getInt(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+
+        @Override
+        boolean isLong(int row) {
+            return true;
+        }
+
+        @Override
+        double getDouble(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+    }
+
+    static final class Longs extends Primitive {
+        private long[] values;
+
+        Longs(int nullCount) {
+            super(nullCount);
+            values = new long[Math.max(nullCount, INITIAL_CAPACITY)];
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        int elementBytes() {
+            return Long.BYTES;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        boolean store(int row, CsvLexer lexer, int cell) {
+            char[] buf = lexer.getBuffer();
+            int start = lexer.getBufferStart(cell);
+            int end = lexer.getBufferEnd(cell);
+            if (!isCanonicalLong(buf, start, end)) {
+                return false;
+            }
+            values[row] = parseLong(buf, start, end);
+            return true;
+        }
+
+        @Override
+        boolean store(int row, String val) {
+            char[] chars = val.toCharArray();
+            if (!isCanonicalLong(chars, 0, chars.length)) {
+                return false;
+            }
+            values[row] = parseLong(chars, 0, chars.length);
+            return true;
+        }
+
+        @Override
+        String format(int row) {
+            return Long.toString(values[row]);
+        }
+
+        @Override
+        long getLong(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+
+        @Override
+        boolean isLong(int row) {
+            return true;
+        }
+
+        @Override
+        double getDouble(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+    }
+
+    static final class Doubles extends Primitive {
+        private double[] values;
+
+        Doubles(int nullCount) {
+            super(nullCount);
+            values = new double[Math.max(nullCount, INITIAL_CAPACITY)];
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        int elementBytes() {
+            return Double.BYTES;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        boolean store(int row, CsvLexer lexer, int cell) {
+            return store(row, lexer.getCell(cell));
+        }
+
+        @Override
+        boolean store(int row, String val) {
+            if (!isCanonicalDouble(val)) {
+                return false;
+            }
+            values[row] = Double.parseDouble(val);
+            return true;
+        }
+
+        @Override
+        String format(int row) {
+            return Double.toString(values[row]);
+        }
+
+        @Override
+        boolean isLong(int row) {
+            return false;
+        }
+
+        @Override
+        double getDouble(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+    }
+
+    static final class Booleans extends Primitive {
+        private boolean[] values;
+
+        Booleans(int nullCount) {
+            super(nullCount);
+            values = new boolean[Math.max(nullCount, INITIAL_CAPACITY)];
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        int elementBytes() {
+            return 1;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        boolean store(int row, CsvLexer lexer, int cell) {
+            char[] buf = lexer.getBuffer();
+            int start = lexer.getBufferStart(cell);
+            int length = lexer.getBufferEnd(cell) - start;
+            if (length == 4 && buf[start] == 't' && buf[start + 1] == 'r'
+                    && buf[start + 2] == 'u' && buf[start + 3] == 'e') {
+                values[row] = true;
+                return true;
+            }
+            if (length == 5 && buf[start] == 'f' && buf[start + 1] == 'a'
+                    && buf[start + 2] == 'l' && buf[start + 3] == 's' && buf[start + 4] == 'e') {
+                values[row] = false;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        boolean store(int row, String val) {
+            if (!val.equals("true") && !val.equals("false")) {
+                return false;
+            }
+            values[row] = val.equals("true");
+            return true;
+        }
+
+        @Override
+        String format(int row) {
+            return Boolean.toString(values[row]);
+        }
+
+        @Override
+        boolean isLong(int row) {
+            return false;
+        }
+
+        @Override
+        boolean getBoolean(int row) {
+            checkNotNull(row);
+            return values[row];
+        }
+    }
+
+    static final class Strings extends Column {
+        private String[] values;
+        private int size;
+
+        Strings(String[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        String get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long estimateBytes() {
+            long res = MemoryEstimate.OBJECT_HEADER + MemoryEstimate.array(values.length, MemoryEstimate.REFERENCE);
+            for (int row = 0; row < size; row++) {
+                res += MemoryEstimate.string(values[row]);
+            }
+            return res;
+        }
+
+        @Override
+        boolean set(int row, String val) {
+            values[row] = val;
+            return true;
+        }
+
+        @Override
+        boolean append(CsvLexer lexer, int cell) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = lexer.getCell(cell);
+            return true;
+        }
+
+        @Override
+        Strings toStrings() {
+            return this;
+        }
+    }
+
+    /**
+     * Column of strings that keeps every distinct value once and an int code of the value for every row.
+     * Values are looked up in an open addressing hash table by the chars of the lexer buffer,
+     * so repeated values don't create strings.
+     */
+    static final class Dictionary extends Column {
+        private final int maxValueCount;
+        private int[] codes = new int[INITIAL_CAPACITY];
+        private int size;
+        private String[] values = new String[INITIAL_CAPACITY];
+        private int[] hashes = new int[INITIAL_CAPACITY];
+        private int valueCount;
+        private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+        Dictionary(int maxValueCount) {
+            this.maxValueCount = maxValueCount;
+        }
+
+        /**
+         * Returns dictionary column with values of given column
+         * or null if the column has more than maxValueCount distinct values
+         */
+        static Dictionary of(Column column, int maxValueCount) {
+            Dictionary res = new Dictionary(maxValueCount);
+            for (int row = 0; row < column.size(); row++) {
+                if (!res.append(column.get(row))) {
+                    return null;
+                }
+            }
+            return res;
+        }
+
+        private static int hash(char[] buf, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + buf[i];
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private boolean matches(int code, char[] buf, int start, int end) {
+            String val = values[code];
+            if (val.length() != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (val.charAt(i - start) != buf[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns code of the value, adding it to the dictionary if needed
+         * @return code of the value or -1 if dictionary is full
+         */
+        private int codeOf(char[] buf, int start, int end) {
+            int hash = hash(buf, start, end);
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] != 0) {
+                int code = slots[i] - 1;
+                if (hashes[code] == hash && matches(code, buf, start, end)) {
+                    return code;
+                }
+                i = (i + 1) & mask;
+            }
+            if (valueCount == maxValueCount) {
+                return -1;
+            }
+            if (valueCount == values.length) {
+                values = Arrays.copyOf(values, valueCount * 2);
+                hashes = Arrays.copyOf(hashes, valueCount * 2);
+            }
+            int code = valueCount++;
+            values[code] = new String(buf, start, end - start);
+            hashes[code] = hash;
+            slots[i] = code + 1;
+            if (valueCount * 2 > slots.length) {
+                rehash();
+            }
+            return code;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int code = 0; code < valueCount; code++) {
+                int i = hashes[code] & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = code + 1;
+            }
+        }
+
+        private boolean appendCode(int code) {
+            if (code < 0) {
+                return false;
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size++] = code;
+            return true;
+        }
+
+        private boolean append(String val) {
+            if (val == null) {
+                return false;
+            }
+            char[] chars = val.toCharArray();
+            return appendCode(codeOf(chars, 0, chars.length));
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        String get(int row) {
+            return values[codes[row]];
+        }
+
+        @Override
+        long estimateBytes() {
+            long res = MemoryEstimate.OBJECT_HEADER + MemoryEstimate.array(codes.length, Integer.BYTES)
+                    + MemoryEstimate.array(values.length, MemoryEstimate.REFERENCE)
+                    + MemoryEstimate.array(hashes.length, Integer.BYTES)
+                    + MemoryEstimate.array(slots.length, Integer.BYTES);
+            for (int code = 0; code < valueCount; code++) {
+                res += MemoryEstimate.string(values[code]);
+            }
+            return res;
+        }
+
+        @Override
+        boolean set(int row, String val) {
+            if (val == null) {
+                return false;
+            }
+            char[] chars = val.toCharArray();
+            int code = codeOf(chars, 0, chars.length);
+            if (code < 0) {
+                return false;
+            }
+            codes[row] = code;
+            return true;
+        }
+
+        @Override
+        boolean append(CsvLexer lexer, int cell) {
+            if (lexer.hasEscapedQuotes(cell)) {
+                return append(lexer.getCell(cell));
+            }
+            return appendCode(codeOf(lexer.getBuffer(), lexer.getBufferStart(cell), lexer.getBufferEnd(cell)));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.vitos23.csvutils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * <p>Index of values of one column of {@link CsvTable}. Every distinct value is mapped to the sorted list
+ * of rows that contain it. The table passes every change of the column to {@link #update}.</p>
+ * <p>Hash index finds rows by value, sorted index also finds rows by a range of values.</p>
+ */
+abstract class ColumnIndex {
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Map<String, Rows> rows;
+
+    ColumnIndex(Map<String, Rows> rows, TableStorage table, int col) {
+        this.rows = rows;
+        for (int row = 0; row < table.getHeight(); row++) {
+            add(row, table.get(row, col));
+        }
+    }
+
+    /**
+     * Adds row with the value, e.g. a row appended to the table
+     */
+    final void add(int row, String val) {
+        rows.computeIfAbsent(val, v -> new Rows()).add(row);
+    }
+
+    /**
+     * Returns rows with given value in ascending order
+     */
+    final int[] find(String val) {
+        Rows res = rows.get(val);
+        return res == null ? NO_ROWS : res.toArray();
+    }
+
+    /**
+     * Moves row from the list of its old value to the list of its new value
+     */
+    final void update(int row, String oldVal, String newVal) {
+        if (oldVal == null ? newVal == null : oldVal.equals(newVal)) {
+            return;
+        }
+        Rows old = rows.get(oldVal);
+        old.remove(row);
+        if (old.size == 0) {
+            rows.remove(oldVal);
+        }
+        rows.computeIfAbsent(newVal, val -> new Rows()).add(row);
+    }
+
+    /**
+     * Removes deleted row with the value and shifts numbers of the following rows down. Lists of all values
+     * are visited, so it takes time proportional to the number of rows in the index
+     */
+    final void delete(int row, String val) {
+        Rows deleted = rows.get(val);
+        deleted.remove(row);
+        if (deleted.size == 0) {
+            rows.remove(val);
+        }
+        for (Rows list : rows.values()) {
+            list.shift(row);
+        }
+    }
+
+    static final class Hash extends ColumnIndex {
+        Hash(TableStorage table, int col) {
+            super(new HashMap<>(), table, col);
+        }
+    }
+
+    static final class Sorted extends ColumnIndex {
+        private final NavigableMap<String, Rows> sorted;
+
+        Sorted(TableStorage table, int col, Comparator<String> comparator) {
+            this(new TreeMap<>(Comparator.nullsFirst(comparator)), table, col);
+        }
+
+        private Sorted(NavigableMap<String, Rows> sorted, TableStorage table, int col) {
+            super(sorted, table, col);
+            this.sorted = sorted;
+        }
+
+        /**
+         * Returns rows with values in range [from, to) in ascending order of rows
+         */
+        int[] findRange(String from, String to) {
+            if (sorted.comparator().compare(from, to) >= 0) {
+                return NO_ROWS;
+            }
+            Rows res = new Rows();
+            for (Rows rows : sorted.subMap(from, true, to, false).values()) {
+                res.addAll(rows);
+            }
+            int[] arr = res.toArray();
+            Arrays.sort(arr);
+            return arr;
+        }
+    }
+
+    /**
+     * Sorted list of row numbers
+     */
+    static final class Rows {
+        private int[] rows = new int[1];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            int pos = size;
+            while (pos > 0 && rows[pos - 1] > row) {
+                pos--;
+            }
+            System.arraycopy(rows, pos, rows, pos + 1, size - pos);
+            rows[pos] = row;
+            size++;
+        }
+
+        void addAll(Rows other) {
+            if (rows.length - size < other.size) {
+                rows = Arrays.copyOf(rows, Math.max(rows.length * 2, size + other.size));
+            }
+            System.arraycopy(other.rows, 0, rows, size, other.size);
+            size += other.size;
+        }
+
+        void remove(int row) {
+            int pos = Arrays.binarySearch(rows, 0, size, row);
+            System.arraycopy(rows, pos + 1, rows, pos, size - pos - 1);
+            size--;
+        }
+
+        /**
+         * Decrements numbers of rows that follow the row
+         */
+        void shift(int row) {
+            int pos = Arrays.binarySearch(rows, 0, size, row);
+            for (int i = pos < 0 ? -pos - 1 : pos + 1; i < size; i++) {
+                rows[i]--;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.vitos23.csvutils;
+
+/**
+ * Stores cells column by column. Type of every column can be inferred while parsing,
+ * see {@link Column} for details. Columns of strings with few distinct values can be dictionary-encoded.
+ */
+class ColumnarStorage implements TableStorage {
+    private final Column[] columns;
+    private final int height;
+
+    private ColumnarStorage(Column[] columns, int height) {
+        this.columns = columns;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return columns.length;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String get(int row, int col) {
+        return columns[col].get(row);
+    }
+
+    @Override
+    public void set(int row, int col, String val) {
+        if (!columns[col].set(row, val)) {
+            columns[col] = columns[col].toStrings();
+            columns[col].set(row, val);
+        }
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return columns[col].isEmptyAt(row);
+    }
+
+    @Override
+    public int getInt(int row, int col) {
+        return columns[col].getInt(row);
+    }
+
+    @Override
+    public long getLong(int row, int col) {
+        return columns[col].getLong(row);
+    }
+
+    @Override
+    public boolean isLong(int row, int col) {
+        return columns[col].isLong(row);
+    }
+
+    @Override
+    public double getDouble(int row, int col) {
+        return columns[col].getDouble(row);
+    }
+
+    @Override
+    public boolean getBoolean(int row, int col) {
+        return columns[col].getBoolean(row);
+    }
+
+    @Override
+    public long estimateBytes() {
+        long res = MemoryEstimate.array(columns.length, MemoryEstimate.REFERENCE);
+        for (Column column : columns) {
+            res += column.estimateBytes();
+        }
+        return res;
+    }
+
+    static class Builder implements TableStorage.Builder<CsvLexer> {
+        private final boolean inferTypes;
+        private final int maxDictionarySize;
+        private Column[] columns;
+        private int height;
+
+        /**
+         * @param inferTypes if columns of numbers and booleans should be stored in primitive arrays
+         * @param maxDictionarySize is the maximum number of distinct values in a dictionary-encoded column,
+         *                          0 disables dictionary encoding
+         */
+        Builder(boolean inferTypes, int maxDictionarySize) {
+            this.inferTypes = inferTypes;
+            this.maxDictionarySize = maxDictionarySize;
+        }
+
+        private Column newColumn() {
+            if (inferTypes) {
+                return new Column.Nulls();
+            }
+            if (maxDictionarySize > 0) {
+                return new Column.Dictionary(maxDictionarySize);
+            }
+            return new Column.Strings(new String[16], 0);
+        }
+
+        private Column widen(Column column, CsvLexer lexer, int col) {
+            Column wider = column.widen(lexer, col);
+            if (wider instanceof Column.Strings && !(column instanceof Column.Dictionary) && maxDictionarySize > 0) {
+                Column dictionary = Column.Dictionary.of(wider, maxDictionarySize);
+                if (dictionary != null) {
+                    return dictionary;
+                }
+            }
+            return wider;
+        }
+
+        @Override
+        public void addRow(CsvLexer lexer) {
+            if (columns == null) {
+                columns = new Column[lexer.getCellCount()];
+                for (int col = 0; col < columns.length; col++) {
+                    columns[col] = newColumn();
+                }
+            }
+            for (int col = 0; col < columns.length; col++) {
+                while (!columns[col].append(lexer, col)) {
+                    columns[col] = widen(columns[col], lexer, col);
+                }
+            }
+            height++;
+        }
+
+        @Override
+        public TableStorage build() {
+            return new ColumnarStorage(columns == null ? new Column[0] : columns, height);
+        }
+    }
+}
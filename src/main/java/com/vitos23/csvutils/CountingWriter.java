@@ -0,0 +1,38 @@
+package com.vitos23.csvutils;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that counts characters passed to the underlying writer
+ */
+class CountingWriter extends FilterWriter {
+    private long count;
+
+    CountingWriter(Writer out) {
+        super(out);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        out.write(c);
+        count++;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        out.write(cbuf, off, len);
+        count += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        out.write(str, off, len);
+        count += len;
+    }
+}
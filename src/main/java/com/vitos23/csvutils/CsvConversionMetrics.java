@@ -0,0 +1,75 @@
+package com.vitos23.csvutils;
+
+/**
+ * Metrics of converting one csv table, see {@link CsvMetricsListener}
+ */
+public final class CsvConversionMetrics {
+    /**
+     * Format a table is converted into
+     */
+    public enum Format {
+        HTML, JSON, JSON_ARRAYS, JSON_COLUMN_ARRAY
+    }
+
+    private final Format format;
+    private final long rows;
+    private final long cells;
+    private final long chars;
+    private final long nanos;
+
+    CsvConversionMetrics(Format format, long rows, long cells, long chars, long nanos) {
+        this.format = format;
+        this.rows = rows;
+        this.cells = cells;
+        this.chars = chars;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns format the table was converted into
+     * @return format of conversion
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns number of converted rows
+     * @return number of rows
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns number of converted cells
+     * @return number of cells
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns number of written characters or -1 if the table was converted into a json tree
+     * @return number of characters
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * Returns time spent on conversion in nanoseconds
+     * @return conversion time
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "CsvConversionMetrics{format=%s, rows=%d, cells=%d, chars=%d, nanos=%d}",
+                format, rows, cells, chars, nanos
+        );
+    }
+}
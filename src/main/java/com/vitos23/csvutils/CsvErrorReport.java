@@ -0,0 +1,128 @@
+package com.vitos23.csvutils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Report of incorrect rows skipped by lenient parsing, see {@link CsvParseOptions#setErrorReport(CsvErrorReport)}.
+ * Only the first errors up to the limit are kept, the rest are only counted. A report can be shared
+ * by parsings running at the same time, e.g. by {@link BatchConverter}, errors of parsed files are then
+ * told apart by {@link RowError#getSource()}.</p>
+ * <pre>{@code
+ * CsvErrorReport errors = new CsvErrorReport(100);
+ * CsvTable table = CsvParser.parse(source, new CsvParseOptions().setHeader(true).setErrorReport(errors));
+ * if (errors.getErrorCount() > 0) {
+ *     log.warn("Skipped {} rows, first ones: {}", errors.getErrorCount(), errors.getErrors());
+ * }
+ * }</pre>
+ */
+public class CsvErrorReport {
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+    private long errorCount;
+
+    /**
+     * Creates an empty report
+     * @param maxErrors is the maximum number of errors to keep
+     * @throws IllegalArgumentException if maxErrors is negative
+     */
+    public CsvErrorReport(int maxErrors) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("Maximum number of errors can't be negative: " + maxErrors);
+        }
+        this.maxErrors = maxErrors;
+    }
+
+    synchronized void add(String source, long row, long offset, String reason) {
+        errorCount++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(source, row, offset, reason));
+        }
+    }
+
+    /**
+     * Returns the first errors up to the limit in order they were found, which is the order of rows
+     * within a source
+     * @return unmodifiable copy of the list of errors
+     */
+    public synchronized List<RowError> getErrors() {
+        return Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    /**
+     * Returns number of all incorrect rows including the ones that aren't kept
+     * @return number of errors
+     */
+    public synchronized long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns true if some errors aren't kept because of the limit
+     * @return if the report is truncated
+     */
+    public synchronized boolean isTruncated() {
+        return errorCount > errors.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CsvErrorReport{errorCount=%d, errors=%s}", errorCount, errors);
+    }
+
+    /**
+     * Incorrect row of csv table
+     */
+    public static final class RowError {
+        private final String source;
+        private final long row;
+        private final long offset;
+        private final String reason;
+
+        private RowError(String source, long row, long offset, String reason) {
+            this.source = source;
+            this.row = row;
+            this.offset = offset;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns path of the parsed file or null if a string, a buffer or a stream is parsed
+         * @return source of the row
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Returns number of the row in the source starting from 1. Header, empty lines and rows rejected
+         * by filters are counted, a row with line separators in quoted cells is counted once
+         * @return number of the row
+         */
+        public long getRow() {
+            return row;
+        }
+
+        /**
+         * Returns position of the row start in the source, in characters or in bytes if bytes are parsed
+         * @return offset of the row
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns description of the error
+         * @return reason of the error
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RowError{source=%s, row=%d, offset=%d, reason=%s}", source, row, offset, reason);
+        }
+    }
+}
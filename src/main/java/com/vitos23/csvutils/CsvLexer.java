@@ -0,0 +1,393 @@
+package com.vitos23.csvutils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * <p>Splits csv source into rows and cells. Every character is mapped to a class (ordinary, quote,
+ * delimiter, line end) by a lookup table, and runs of ordinary characters in unquoted cells and of
+ * non-quote characters in quoted cells are skipped by tight loops without any per-character probing.</p>
+ * <p>Source is pulled through a buffer that only has to hold the current row. Cells of the current row
+ * are kept as bounds in the buffer and strings are created only when they are requested.</p>
+ */
+final class CsvLexer extends RowLexer implements Closeable {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final byte ORDINARY = 0;
+    private static final byte QUOTE = 1;
+    private static final byte DELIMITER = 2;
+    private static final byte LINE_END = 3;
+
+    private final Reader source;
+    private final byte[] classes = new byte[128];
+    private final String delimiter;
+    private final char delimiterStart;
+
+    private char[] buffer;
+    private int pos;
+    private int limit;
+    private long offset;
+    private boolean exhausted;
+
+    private int rowStart;
+    private int cellStart;
+    private final CellView view = new CellView();
+
+    CsvLexer(Reader source, String delimiter, int bufferSize) {
+        if (delimiter.isEmpty()) {
+            throw new IllegalArgumentException("Delimiter can't be empty");
+        }
+        this.source = source;
+        this.delimiter = delimiter;
+        this.delimiterStart = delimiter.charAt(0);
+        this.buffer = new char[Math.max(bufferSize, delimiter.length() + 1)];
+        if (delimiterStart == '"' || isLineSeparator(delimiterStart)) {
+            throw new IllegalArgumentException("Delimiter can't start with a quote or line separator");
+        }
+        for (char c = 0; c < classes.length; c++) {
+            if (isLineSeparator(c)) {
+                classes[c] = LINE_END;
+            }
+        }
+        classes['"'] = QUOTE;
+        if (delimiterStart < classes.length) {
+            classes[delimiterStart] = DELIMITER;
+        }
+    }
+
+    CsvLexer(Reader source, String delimiter) {
+        this(source, delimiter, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvLexer(String source, String delimiter) {
+        this(new StringReader(source), delimiter, Math.min(source.length(), DEFAULT_BUFFER_SIZE));
+    }
+
+    static boolean isLineSeparator(char c) {
+        return c == '\n' || c == '\r' || c == '\u000b' || c == '\u000c'
+                || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private byte classOf(char c) {
+        if (c < 128) {
+            return classes[c];
+        }
+        if (c == delimiterStart) {
+            return DELIMITER;
+        }
+        return isLineSeparator(c) ? LINE_END : ORDINARY;
+    }
+
+    /**
+     * Reads more characters keeping the current row in the buffer
+     * @return false if source is exhausted
+     */
+    private boolean fill() {
+        if (exhausted) {
+            return false;
+        }
+        if (limit == buffer.length) {
+            if (rowStart > 0) {
+                int shift = rowStart;
+                System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+                for (int i = 0; i < starts.length; i++) {
+                    starts[i] -= shift;
+                    ends[i] -= shift;
+                }
+                rowStart = 0;
+                cellStart -= shift;
+                pos -= shift;
+                limit -= shift;
+                offset += shift;
+            } else {
+                char[] grown = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, limit);
+                buffer = grown;
+            }
+        }
+        try {
+            int read = source.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                exhausted = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns character at given distance from current position or -1 if source ends before it
+     */
+    private int peek(int distance) {
+        while (pos + distance >= limit) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return buffer[pos + distance];
+    }
+
+    private boolean testDelimiter() {
+        for (int i = 1; i < delimiter.length(); i++) {
+            if (peek(i) != delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipEndOfLine() {
+        char c = buffer[pos++];
+        if (c == '\r' && peek(0) == '\n') {
+            pos++;
+        }
+    }
+
+    @Override
+    CharSequence cellView(int start, int end, boolean hasEscapedQuotes) {
+        return hasEscapedQuotes ? unescape(buffer, start, end) : view.set(buffer, start, end);
+    }
+
+    @Override
+    boolean scanRow() {
+        rowStart = pos;
+        if (pos == limit && !fill()) {
+            return false;
+        }
+        if (classOf(buffer[pos]) == LINE_END) {
+            skipEndOfLine();
+        } else {
+            boolean rowEnded = false;
+            while (!rowEnded) {
+                rowEnded = scanCell();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans one cell and the delimiter or line end following it
+     * @return true if the row has ended
+     */
+    private boolean scanCell() {
+        if (pos == limit && !fill()) {
+            addCell(pos, pos, false);
+            return true;
+        }
+        return buffer[pos] == '"' ? scanQuoted() : scanUnquoted();
+    }
+
+    private boolean scanUnquoted() {
+        cellStart = pos;
+        boolean hasEscapedQuotes = false;
+        while (true) {
+            char[] buf = buffer;
+            int p = pos;
+            int lim = limit;
+            byte cls = ORDINARY;
+            while (p < lim) {
+                char c = buf[p];
+                cls = c < 128 ? classes[c] : classOf(c);
+                if (cls != ORDINARY) {
+                    break;
+                }
+                p++;
+            }
+            pos = p;
+            if (p == lim) {
+                if (!fill()) {
+                    addCell(cellStart, pos, hasEscapedQuotes);
+                    return true;
+                }
+                continue;
+            }
+            if (cls == QUOTE) {
+                if (peek(1) != '"') {
+                    return skipMalformedRow("Missing opening quote", pos + 1);
+                }
+                hasEscapedQuotes = true;
+                pos += 2;
+            } else if (cls == DELIMITER) {
+                if (testDelimiter()) {
+                    addCell(cellStart, pos, hasEscapedQuotes);
+                    pos += delimiter.length();
+                    return false;
+                }
+                pos++;
+            } else {
+                addCell(cellStart, pos, hasEscapedQuotes);
+                skipEndOfLine();
+                return true;
+            }
+        }
+    }
+
+    private boolean scanQuoted() {
+        quotedCells++;
+        cellStart = ++pos;
+        boolean hasEscapedQuotes = false;
+        while (true) {
+            char[] buf = buffer;
+            int p = pos;
+            int lim = limit;
+            while (p < lim && buf[p] != '"') {
+                p++;
+            }
+            pos = p;
+            if (p == lim) {
+                if (!fill()) {
+                    return skipMalformedRow("Missing closing quote: Expected '\"' but found 'end of string'");
+                }
+                continue;
+            }
+            if (peek(1) == '"') {
+                hasEscapedQuotes = true;
+                pos += 2;
+                continue;
+            }
+            addCell(cellStart, pos, hasEscapedQuotes);
+            pos++;
+            if (pos == limit && !fill()) {
+                return true;
+            }
+            char c = buffer[pos];
+            byte cls = classOf(c);
+            if (cls == DELIMITER && testDelimiter()) {
+                pos += delimiter.length();
+                return false;
+            } else if (cls == LINE_END) {
+                skipEndOfLine();
+                return true;
+            }
+            return skipMalformedRow(String.format(
+                    "Expected delimiter or end of line after closing quote but found '%s'", c
+            ), pos);
+        }
+    }
+
+    /**
+     * Reports the current row as incorrect and skips the rest of it from the position outside of quotes.
+     * Quotes are tracked, so line separators in quoted cells don't end the row.
+     * @return true as the row has ended
+     */
+    private boolean skipMalformedRow(String reason, int from) {
+        malformed(reason);
+        pos = from;
+        boolean quoted = false;
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && classOf(c) == LINE_END) {
+                skipEndOfLine();
+                break;
+            }
+            pos++;
+        }
+        return true;
+    }
+
+    /**
+     * Reports the current row as incorrect and skips it up to the first line separator after its start,
+     * quotes are ignored. Used when a quoted cell isn't closed up to the end of source, so the rest of source
+     * isn't lost. Rows are scanned again from there.
+     * @return true as the row has ended
+     */
+    private boolean skipMalformedRow(String reason) {
+        malformed(reason);
+        pos = rowStart;
+        while (pos < limit || fill()) {
+            if (classOf(buffer[pos]) == LINE_END) {
+                skipEndOfLine();
+                break;
+            }
+            pos++;
+        }
+        return true;
+    }
+
+    @Override
+    long getRowPosition() {
+        return offset + rowStart;
+    }
+
+    /**
+     * Returns number of characters read so far
+     */
+    @Override
+    long getPosition() {
+        return offset + pos;
+    }
+
+    /**
+     * Returns position of the first character of the cell value in the source. Quotes around the cell
+     * are not included
+     */
+    long getCellStart(int i) {
+        return offset + starts[i];
+    }
+
+    /**
+     * Returns position after the last character of the cell value in the source
+     */
+    long getCellEnd(int i) {
+        return offset + ends[i];
+    }
+
+    /**
+     * Returns buffer holding the current row. It is valid until the next row is read
+     */
+    char[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns position of the first character of the cell value in the buffer
+     */
+    int getBufferStart(int i) {
+        return starts[i];
+    }
+
+    /**
+     * Returns position after the last character of the cell value in the buffer
+     */
+    int getBufferEnd(int i) {
+        return ends[i];
+    }
+
+    /**
+     * Returns value of the cell of the current row with escaped quotes ("") replaced by single ones
+     */
+    @Override
+    String getCell(int i) {
+        int start = starts[i];
+        int end = ends[i];
+        if (!escaped[i]) {
+            return new String(buffer, start, end - start);
+        }
+        return unescape(buffer, start, end);
+    }
+
+    private static String unescape(char[] buffer, int start, int end) {
+        char[] chars = new char[end - start];
+        int length = 0;
+        for (int j = start; j < end; j++) {
+            chars[length++] = buffer[j];
+            if (buffer[j] == '"') {
+                j++;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.vitos23.csvutils;
+
+/**
+ * <p>Receives metrics of parsing and conversions. A listener is set by {@link CsvParseOptions#setMetricsListener}
+ * or {@link CsvTable#setMetricsListener}, tables parsed with the options get the same listener.</p>
+ * <p>Metrics are collected only when a listener is set and are reported once per operation, after it has
+ * finished, on the thread that ran it. See {@link JmxCsvMetrics} for a listener that exposes totals over JMX.</p>
+ */
+public interface CsvMetricsListener {
+    /**
+     * Called when a table is parsed or a {@link CsvReader} reaches the end of source
+     * @param metrics are metrics of parsing
+     */
+    default void parsed(CsvParseMetrics metrics) {
+    }
+
+    /**
+     * Called when a table is converted into html or json
+     * @param metrics are metrics of conversion
+     */
+    default void converted(CsvConversionMetrics metrics) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.vitos23.csvutils;
+
+/**
+ * Metrics of parsing one csv table, see {@link CsvMetricsListener}
+ */
+public final class CsvParseMetrics {
+    private final long chars;
+    private final long bytes;
+    private final long rows;
+    private final long rejectedRows;
+    private final long malformedRows;
+    private final long cells;
+    private final long quotedCells;
+    private final int maxRowWidth;
+    private final long nanos;
+    private final long estimatedBytes;
+
+    CsvParseMetrics(RowLexer lexer, long rows, long nanos, long estimatedBytes) {
+        boolean byteSource = lexer instanceof Utf8Lexer;
+        this.chars = byteSource ? 0 : lexer.getPosition();
+        this.bytes = byteSource ? lexer.getPosition() : 0;
+        this.rows = rows;
+        this.rejectedRows = lexer.getRejectedRows();
+        this.malformedRows = lexer.getMalformedRows();
+        this.cells = lexer.getCellTotal();
+        this.quotedCells = lexer.getQuotedCells();
+        this.maxRowWidth = lexer.getMaxRowWidth();
+        this.nanos = nanos;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * Returns number of characters read from a character source or 0 if the source was read as bytes,
+     * see {@link #getBytes()}
+     * @return number of characters
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * Returns number of bytes read from a byte source, e.g. {@link java.nio.ByteBuffer} or byte array,
+     * or 0 if the source was read as characters, see {@link #getChars()}
+     * @return number of bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns number of rows in the parsed table excluding header and rejected rows
+     * @return number of rows
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns number of rows rejected by filters,
+     * see {@link CsvParseOptions#addFilter(int, java.util.function.Predicate)}
+     * @return number of rejected rows
+     */
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * Returns number of incorrect rows skipped by lenient parsing, see
+     * {@link CsvParseOptions#setErrorReport(CsvErrorReport)}
+     * @return number of malformed rows
+     */
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    /**
+     * Returns number of scanned cells including header and cells that weren't selected
+     * @return number of cells
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns number of scanned cells enclosed in quotes
+     * @return number of quoted cells
+     */
+    public long getQuotedCells() {
+        return quotedCells;
+    }
+
+    /**
+     * Returns the maximum number of cells in a row of the source
+     * @return maximum row width
+     */
+    public int getMaxRowWidth() {
+        return maxRowWidth;
+    }
+
+    /**
+     * Returns time spent on parsing in nanoseconds
+     * @return parsing time
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns estimated number of bytes retained by the parsed table or 0 if rows aren't stored,
+     * e.g. when read by {@link CsvReader}
+     * @return estimated size of the table
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Returns parsing throughput of a character source
+     * @return number of characters parsed per second
+     */
+    public double getCharsPerSecond() {
+        return nanos == 0 ? 0 : chars * 1e9 / nanos;
+    }
+
+    /**
+     * Returns parsing throughput of a byte source
+     * @return number of bytes parsed per second
+     */
+    public double getBytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "CsvParseMetrics{chars=%d, bytes=%d, rows=%d, rejectedRows=%d, malformedRows=%d, cells=%d,"
+                        + " quotedCells=%d, maxRowWidth=%d, nanos=%d, estimatedBytes=%d}",
+                chars, bytes, rows, rejectedRows, malformedRows, cells, quotedCells, maxRowWidth, nanos, estimatedBytes
+        );
+    }
+}
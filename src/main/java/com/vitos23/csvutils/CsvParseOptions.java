@@ -0,0 +1,296 @@
+package com.vitos23.csvutils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Options of csv parsing. Setters return this instance, so they can be chained:
+ * <pre>{@code
+ * CsvTable table = CsvParser.parse(source, new CsvParseOptions().setHeader(true).setDelimiter(";"));
+ * }</pre>
+ */
+public class CsvParseOptions {
+    private boolean hasHeader;
+    private String delimiter = ",";
+    private boolean lazyCells;
+    private boolean inferTypes;
+    private int maxDictionarySize;
+    private int[] columnIndices;
+    private String[] columnNames;
+    private final Map<Integer, Predicate<CharSequence>> indexFilters = new HashMap<>();
+    private final Map<String, Predicate<CharSequence>> nameFilters = new HashMap<>();
+    private CsvMetricsListener metricsListener;
+    private CsvErrorReport errorReport;
+
+    /**
+     * Sets if the first row of csv table is its header. Default is false
+     * @param hasHeader if the first row of csv table is its header
+     * @return this options
+     */
+    public CsvParseOptions setHeader(boolean hasHeader) {
+        this.hasHeader = hasHeader;
+        return this;
+    }
+
+    /**
+     * Sets a string that separates cells in row. Default is comma (,)
+     * @param delimiter is a string that separates cells in row
+     * @return this options
+     * @throws IllegalArgumentException if delimiter is empty or starts with a quote or line separator
+     */
+    public CsvParseOptions setDelimiter(String delimiter) {
+        if (delimiter.isEmpty() || delimiter.charAt(0) == '"' || CsvLexer.isLineSeparator(delimiter.charAt(0))) {
+            throw new IllegalArgumentException("Delimiter can't be empty or start with a quote or line separator");
+        }
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * <p>Sets if cells should be kept as bounds in the source string. Default is false.</p>
+     * <p>Parsed table then doesn't hold a string per cell, strings are created on every
+     * {@link CsvTable#getCell(int, int)} call instead. The whole source string is retained by the table.
+     * Applies when parsing a string or bytes, see {@link CsvParser#parse(java.nio.ByteBuffer, CsvParseOptions)}.</p>
+     * @param lazyCells if cells should be kept as bounds in the source string
+     * @return this options
+     */
+    public CsvParseOptions setLazyCells(boolean lazyCells) {
+        this.lazyCells = lazyCells;
+        return this;
+    }
+
+    /**
+     * <p>Sets if the table should be stored column by column with inferred column types. Default is false.</p>
+     * <p>Columns with int, long, double or boolean values are then kept in primitive arrays, empty cells
+     * are allowed in them. A value is stored as a primitive only if {@link CsvTable#getCell(int, int)}
+     * returns exactly the same text, e.g. a column with "1.50" is kept as a column of strings.
+     * Typed getters such as {@link CsvTable#getLong(int, int)} read primitive columns without parsing.
+     * Takes precedence over lazy cells.</p>
+     * @param inferTypes if the table should be stored column by column with inferred column types
+     * @return this options
+     */
+    public CsvParseOptions setInferTypes(boolean inferTypes) {
+        this.inferTypes = inferTypes;
+        return this;
+    }
+
+    /**
+     * <p>Sets the maximum number of distinct values in a dictionary-encoded column. Default is 0 that
+     * disables dictionary encoding.</p>
+     * <p>The table is then stored column by column, and every column of strings starts dictionary-encoded:
+     * each distinct value is stored once and cells keep an int code of their value, so repeated values
+     * don't create strings while parsing. A column turns into a plain column of strings when it gets
+     * more distinct values than the limit. Can be combined with inferred types.</p>
+     * @param maxDictionarySize is the maximum number of distinct values in a dictionary-encoded column
+     * @return this options
+     * @throws IllegalArgumentException if maxDictionarySize is negative
+     */
+    public CsvParseOptions setDictionaryEncoding(int maxDictionarySize) {
+        if (maxDictionarySize < 0) {
+            throw new IllegalArgumentException("Dictionary size can't be negative");
+        }
+        this.maxDictionarySize = maxDictionarySize;
+        return this;
+    }
+
+    /**
+     * <p>Sets columns to keep in the parsed table, in given order. Default is all columns.</p>
+     * <p>Other cells are scanned to find boundaries of the selected ones, but aren't stored.</p>
+     * @param columns are indices of columns to keep
+     * @return this options
+     * @throws IllegalArgumentException if some index is negative or repeated
+     */
+    public CsvParseOptions setColumns(int... columns) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Column index can't be negative: " + columns[i]);
+            }
+            for (int j = 0; j < i; j++) {
+                if (columns[i] == columns[j]) {
+                    throw new IllegalArgumentException("Column " + columns[i] + " is selected twice");
+                }
+            }
+        }
+        this.columnIndices = columns.clone();
+        this.columnNames = null;
+        return this;
+    }
+
+    /**
+     * <p>Sets columns to keep in the parsed table by their names in the header, in given order.
+     * Default is all columns. Requires a header.</p>
+     * <p>Other cells are scanned to find boundaries of the selected ones, but aren't stored.</p>
+     * @param columns are names of columns to keep
+     * @return this options
+     */
+    public CsvParseOptions setColumns(String... columns) {
+        this.columnNames = columns.clone();
+        this.columnIndices = null;
+        return this;
+    }
+
+    /**
+     * <p>Adds a filter of rows by value of a cell. Only rows with all filters matched are kept.</p>
+     * <p>A filter is tested as soon as its cell is scanned. Other cells of a rejected row are only scanned
+     * to find the end of row, no strings are created for them. The filter gets a view of the cell in
+     * the parser buffer that must not be retained, e.g. {@code "FAILED"::contentEquals} can be used
+     * to match a value. Filtered column doesn't have to be selected by {@link #setColumns(int...)}.
+     * Parsing throws IllegalArgumentException if the table doesn't have the column.</p>
+     * @param column is an index of filtered column
+     * @param filter is a predicate that matching cells satisfy
+     * @return this options
+     * @throws IllegalArgumentException if column index is negative
+     */
+    public CsvParseOptions addFilter(int column, Predicate<? super CharSequence> filter) {
+        if (column < 0) {
+            throw new IllegalArgumentException("Column index can't be negative: " + column);
+        }
+        indexFilters.merge(column, filter::test, Predicate::and);
+        return this;
+    }
+
+    /**
+     * Adds a filter of rows by value of a cell in column with given name in the header,
+     * see {@link #addFilter(int, Predicate)}. Requires a header.
+     * @param column is a name of filtered column
+     * @param filter is a predicate that matching cells satisfy
+     * @return this options
+     */
+    public CsvParseOptions addFilter(String column, Predicate<? super CharSequence> filter) {
+        nameFilters.merge(column, filter::test, Predicate::and);
+        return this;
+    }
+
+    /**
+     * Sets a listener of parsing metrics. Parsed tables report metrics of conversions to the same listener.
+     * Default is null that disables collection of metrics.
+     * @param metricsListener is a listener of metrics or null
+     * @return this options
+     */
+    public CsvParseOptions setMetricsListener(CsvMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    /**
+     * <p>Makes parsing lenient: a row that doesn't follow RFC 4180 or has wrong number of cells is skipped
+     * and recorded in the report instead of aborting parsing with
+     * {@link com.vitos23.csvutils.exceptions.IncorrectInputException}. The rest of the skipped row is scanned
+     * from the error, quoted cells of it may span lines. If a quoted cell isn't closed up to the end of source,
+     * parsing resumes at the first line separator after the start of the row. Errors in the header are still
+     * thrown.</p>
+     * <p>Default is null that makes parsing strict. A report can be shared by parsings running at the same time,
+     * errors of parsed files have their paths, see {@link CsvErrorReport.RowError#getSource()}.</p>
+     * @param errorReport is a report of skipped rows or null
+     * @return this options
+     */
+    public CsvParseOptions setErrorReport(CsvErrorReport errorReport) {
+        this.errorReport = errorReport;
+        return this;
+    }
+
+    boolean hasHeader() {
+        return hasHeader;
+    }
+
+    String getDelimiter() {
+        return delimiter;
+    }
+
+    boolean isLazyCells() {
+        return lazyCells;
+    }
+
+    boolean isInferTypes() {
+        return inferTypes;
+    }
+
+    int getMaxDictionarySize() {
+        return maxDictionarySize;
+    }
+
+    CsvMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets error report and filters and selects columns of the lexer according to options.
+     * Must be called after the header is read.
+     * @param header is the full header of the table or null if there is no header
+     * @return the header of selected columns or null if there is no header
+     * @throws IllegalArgumentException if there is no column with selected name
+     */
+    String[] apply(RowLexer lexer, String[] header) {
+        lexer.setErrorReport(errorReport);
+        applyFilters(lexer, header);
+        return applyProjection(lexer, header);
+    }
+
+    private void applyFilters(RowLexer lexer, String[] header) {
+        if (indexFilters.isEmpty() && nameFilters.isEmpty()) {
+            return;
+        }
+        Map<Integer, Predicate<CharSequence>> filters = new HashMap<>(indexFilters);
+        if (!nameFilters.isEmpty()) {
+            checkHeader(header);
+            nameFilters.forEach((name, filter) -> filters.merge(indexOf(header, name), filter, Predicate::and));
+        }
+        int width = 0;
+        for (int col : filters.keySet()) {
+            if (header != null && col >= header.length) {
+                throw new IllegalArgumentException(String.format(
+                        "Column %d is filtered but table has %d columns", col, header.length
+                ));
+            }
+            width = Math.max(width, col + 1);
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Predicate<CharSequence>[] byIndex = new Predicate[width];
+        filters.forEach((col, filter) -> byIndex[col] = filter);
+        lexer.setFilters(byIndex);
+    }
+
+    private String[] applyProjection(RowLexer lexer, String[] header) {
+        int[] columns = columnIndices;
+        if (columnNames != null) {
+            checkHeader(header);
+            columns = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                columns[i] = indexOf(header, columnNames[i]);
+            }
+        }
+        if (columns == null) {
+            return header;
+        }
+        lexer.setProjection(columns);
+        if (header == null) {
+            return null;
+        }
+        String[] projected = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] >= header.length) {
+                throw new IllegalArgumentException(String.format(
+                        "Column %d is selected but table has %d columns", columns[i], header.length
+                ));
+            }
+            projected[i] = header[columns[i]];
+        }
+        return projected;
+    }
+
+    private static void checkHeader(String[] header) {
+        if (header == null) {
+            throw new IllegalArgumentException("Columns can be selected by name only in a table with header");
+        }
+    }
+
+    private static int indexOf(String[] header, String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No column named " + name);
+    }
+}
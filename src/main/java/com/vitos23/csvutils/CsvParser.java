@@ -2,7 +2,16 @@ package com.vitos23.csvutils;
 
 import com.vitos23.csvutils.exceptions.IncorrectInputException;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class CsvParser {
     /**
@@ -15,7 +24,103 @@ public class CsvParser {
      * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
      */
     public static CsvTable parse(String source, boolean hasHeader, String delimiter) {
-        return new CsvParserHelper(source, hasHeader, delimiter).parse();
+        return parse(source, new CsvParseOptions().setHeader(hasHeader).setDelimiter(delimiter));
+    }
+
+    /**
+     * <p>Returns a CsvTable instance that is representation of parsed csv table.
+     * Csv table should follow RFC 4180</p>
+     * @return CsvTable instance
+     * @param source is a string representation of csv table to parse
+     * @param options are options of parsing
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvTable parse(String source, CsvParseOptions options) {
+        return parse(new CsvLexer(source, options.getDelimiter()), options, newBuilder(options, source));
+    }
+
+    /**
+     * <p>Returns a CsvTable instance that is representation of parsed UTF-8 csv file.
+     * Gzip files and zip archives (the first entry) are recognized by their signature and decompressed
+     * on a separate thread while parsing goes on. Option of lazy cells is ignored.
+     * Csv table should follow RFC 4180</p>
+     * @return CsvTable instance
+     * @param file is a path to csv file, possibly compressed
+     * @param options are options of parsing
+     * @throws IOException if file can't be read or decompressed
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvTable parse(Path file, CsvParseOptions options) throws IOException {
+        Reader source = new InputStreamReader(PipelinedInputStream.open(file), StandardCharsets.UTF_8);
+        try (CsvLexer lexer = new CsvLexer(source, options.getDelimiter())) {
+            lexer.setSourceName(file.toString());
+            return parse(lexer, options, newBuilder(options, null));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * <p>Parses csv table with header into objects of a record or a class binding columns by header names,
+     * see {@link RowMapper}. Objects are created right from scanned cells without building a table.
+     * Options that concern storage of parsed table are ignored. Csv table should follow RFC 4180</p>
+     * @return list of objects in order of rows
+     * @param source is a string representation of csv table to parse
+     * @param options are options of parsing, header is required
+     * @param type is a record or a class with a constructor without parameters
+     * @param <T> is a type of objects
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     * @throws IllegalArgumentException if options don't have header or columns can't be bound to the type
+     */
+    public static <T> List<T> parseObjects(String source, CsvParseOptions options, Class<T> type) {
+        CsvMetricsListener listener = options.getMetricsListener();
+        long start = listener == null ? 0 : System.nanoTime();
+        CsvLexer lexer = new CsvLexer(source, options.getDelimiter());
+        String[] header = readHeader(lexer, options);
+        if (header == null) {
+            throw new IllegalArgumentException("Rows can be mapped into objects only in a table with header");
+        }
+        RowMapper<T> mapper = RowMapper.of(type, header);
+        List<T> res = new ArrayList<>();
+        while (lexer.nextRow()) {
+            res.add(mapper.map(lexer));
+        }
+        if (listener != null) {
+            listener.parsed(new CsvParseMetrics(lexer, res.size(), System.nanoTime() - start, 0));
+        }
+        return res;
+    }
+
+    /**
+     * <p>Returns a CsvTable instance that is representation of parsed UTF-8 encoded csv table.
+     * Delimiters, quotes and line separators are found in bytes, only selected cells of rows that match
+     * filters are decoded. With lazy cells they are decoded only when requested and the table keeps the buffer,
+     * so its content must not be changed. Options of type inference and dictionary encoding are ignored.
+     * Metrics report bytes instead of characters, see {@link CsvParseMetrics#getBytes()}.
+     * Csv table should follow RFC 4180</p>
+     * @return CsvTable instance
+     * @param source is a buffer with csv table between its position and limit, its position isn't changed
+     * @param options are options of parsing
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvTable parse(ByteBuffer source, CsvParseOptions options) {
+        Utf8Lexer lexer = new Utf8Lexer(source, options.getDelimiter());
+        if (options.isLazyCells()) {
+            return parse(lexer, options, new Utf8Storage.Builder(source));
+        }
+        return parse(lexer, options, new ChunkedStorage.Builder());
+    }
+
+    /**
+     * <p>Returns a CsvTable instance that is representation of parsed UTF-8 encoded csv table,
+     * see {@link #parse(ByteBuffer, CsvParseOptions)}. Csv table should follow RFC 4180</p>
+     * @return CsvTable instance
+     * @param source is a UTF-8 representation of csv table to parse
+     * @param options are options of parsing
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvTable parse(byte[] source, CsvParseOptions options) {
+        return parse(ByteBuffer.wrap(source), options);
     }
 
     /**
@@ -30,80 +135,77 @@ public class CsvParser {
         return parse(source, hasHeader, ",");
     }
 
-    private static class CsvParserHelper extends BaseParser {
-        private final String delimiter;
-        private final boolean hasHeader;
-
-        public CsvParserHelper(String source, boolean hasHeader, String delimiter) {
-            super(source);
-            this.hasHeader = hasHeader;
-            this.delimiter = delimiter;
-        }
+    /**
+     * <p>Returns a CsvTable instance that is representation of parsed csv file.
+     * The file is memory-mapped and parsed in chunks on the given fork-join pool.
+     * Csv table should follow RFC 4180 and be encoded in UTF-8, malformed bytes are replaced</p>
+     * @return CsvTable instance
+     * @param file is a path to csv file to parse
+     * @param hasHeader if the first row of csv table is its header
+     * @param delimiter is a string that separates cells in row
+     * @param pool is a fork-join pool to parse chunks on
+     * @throws IOException if file can't be read
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvTable parseParallel(Path file, boolean hasHeader, String delimiter, ForkJoinPool pool)
+            throws IOException {
+        return new ParallelCsvParser(file, hasHeader, delimiter, pool).parse();
+    }
 
-        public CsvTable parse() {
-            String[] header = null;
-            int colCnt = -1;
-            if (hasHeader) {
-                header = parseRow();
-                colCnt = header.length;
-            }
-            ArrayList<String[]> table = new ArrayList<>();
-            while (hasNext()) {
-                String[] row = parseRow();
-                table.add(row);
-                if (colCnt == -1) {
-                    colCnt = row.length;
-                } else if (colCnt != row.length) {
-                    throw new IncorrectInputException("Rows have different number of columns");
-                }
-            }
-            return new CsvTable(header, table.toArray(String[][]::new));
-        }
+    /**
+     * <p>Returns a CsvTable instance that is representation of parsed csv file.
+     * The file is memory-mapped and parsed in chunks on the common fork-join pool.
+     * Csv table should follow RFC 4180 and be encoded in UTF-8, malformed bytes are replaced</p>
+     * @return CsvTable instance
+     * @param file is a path to csv file to parse
+     * @param hasHeader if the first row of csv table is its header
+     * @param delimiter is a string that separates cells in row
+     * @throws IOException if file can't be read
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvTable parseParallel(Path file, boolean hasHeader, String delimiter) throws IOException {
+        return parseParallel(file, hasHeader, delimiter, ForkJoinPool.commonPool());
+    }
 
-        private String[] parseRow() {
-            ArrayList<String> row = new ArrayList<>();
-            while(!testEndOfLine()) {
-                row.add(parseCell());
-                if (!testEndOfLine()) {
-                    take(delimiter);
-                }
-            }
-            takeEndOfLine();
-            return row.toArray(String[]::new);
+    /**
+     * Returns a builder of storage chosen by options
+     * @param source is the parsed string that can be kept by the storage or null if source isn't a string
+     */
+    private static TableStorage.Builder<? super CsvLexer> newBuilder(CsvParseOptions options, String source) {
+        if (options.isInferTypes() || options.getMaxDictionarySize() > 0) {
+            return new ColumnarStorage.Builder(options.isInferTypes(), options.getMaxDictionarySize());
+        } else if (options.isLazyCells() && source != null) {
+            return new SourceStorage.Builder(source);
         }
+        return new ChunkedStorage.Builder();
+    }
 
-        private String parseCell() {
-            String res;
-            if (take('\"')) {
-                res = parseValue(true);
-                if (!take('\"')) {
-                    throw new IncorrectInputException(
-                            String.format("Missing closing quote: Expected '\"' but found '%s'", getCurrentChar())
-                    );
-                }
-            } else {
-                res = parseValue(false);
-                if (take('\"')) {
-                    throw new IncorrectInputException("Missing opening quote");
-                }
-            }
-            return res;
+    static <L extends RowLexer> CsvTable parse(L lexer, CsvParseOptions options,
+            TableStorage.Builder<? super L> builder) {
+        CsvMetricsListener listener = options.getMetricsListener();
+        long start = listener == null ? 0 : System.nanoTime();
+        String[] header = readHeader(lexer, options);
+        while (lexer.nextRow()) {
+            builder.addRow(lexer);
         }
-
-        private boolean endOfValue(boolean escaped) {
-            return test('\"') && !test("\"\"") || test(delimiter) || !escaped && testEndOfLine();
+        TableStorage storage = builder.build();
+        CsvTable table = new CsvTable(header, storage);
+        if (listener != null) {
+            long nanos = System.nanoTime() - start;
+            listener.parsed(new CsvParseMetrics(lexer, storage.getHeight(), nanos, storage.estimateBytes()));
+            table.setMetricsListener(listener);
         }
+        return table;
+    }
 
-        private String parseValue(boolean escaped) {
-            StringBuilder res = new StringBuilder();
-            while (!endOfValue(escaped)) {
-                if (take("\"\"")) {
-                    res.append('\"');
-                } else {
-                    res.append(next());
-                }
-            }
-            return res.toString();
-        }
+    /**
+     * Prepares the lexer for reading rows: reads header if table has it, sets filters, selects columns
+     * and enables check of row widths.
+     * @return header of selected columns or null if table doesn't have header
+     */
+    static String[] readHeader(RowLexer lexer, CsvParseOptions options) {
+        lexer.setCheckWidth(true);
+        String[] header = options.hasHeader() && lexer.nextRow() ? lexer.getRow() : null;
+        return options.apply(lexer, header);
     }
 }
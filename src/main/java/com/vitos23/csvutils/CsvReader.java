@@ -0,0 +1,282 @@
+package com.vitos23.csvutils;
+
+import com.google.gson.stream.JsonWriter;
+import com.vitos23.csvutils.exceptions.IncorrectInputException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>Reads csv table row by row from a character stream. Only the current row and a fixed-size buffer
+ * are held in memory, so tables larger than the heap can be processed.
+ * Csv table should follow RFC 4180</p>
+ * <p>Reader errors are rethrown as {@link UncheckedIOException}.</p>
+ */
+public class CsvReader implements Iterator<String[]>, AutoCloseable {
+    private final CsvLexer lexer;
+    private final String[] header;
+    private final CsvMetricsListener listener;
+    private final long start;
+    private long rows;
+    private boolean rowReady;
+    private boolean finished;
+
+    /**
+     * Creates a CsvReader over the given character stream. If table has header it is read immediately.
+     * @param source is a reader of csv table
+     * @param hasHeader if the first row of csv table is its header
+     * @param delimiter is a string that separates cells in row
+     * @throws IncorrectInputException if header row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public CsvReader(Reader source, boolean hasHeader, String delimiter) {
+        this(source, new CsvParseOptions().setHeader(hasHeader).setDelimiter(delimiter));
+    }
+
+    /**
+     * Creates a CsvReader over the given character stream. If table has header it is read immediately.
+     * Options that concern storage of parsed table are ignored. Metrics listener is notified when
+     * the end of source is reached.
+     * @param source is a reader of csv table
+     * @param options are options of parsing
+     * @throws IncorrectInputException if header row is incorrect meaning it doesn't follow RFC 4180
+     * @throws IllegalArgumentException if columns are selected by name that isn't in the header
+     */
+    public CsvReader(Reader source, CsvParseOptions options) {
+        this(source, options, null);
+    }
+
+    private CsvReader(Reader source, CsvParseOptions options, String sourceName) {
+        this.listener = options.getMetricsListener();
+        this.start = listener == null ? 0 : System.nanoTime();
+        this.lexer = new CsvLexer(source, options.getDelimiter());
+        lexer.setSourceName(sourceName);
+        this.header = CsvParser.readHeader(lexer, options);
+    }
+
+    /**
+     * Creates a CsvReader over the given character stream. A comma (,) is used as a separator
+     * @param source is a reader of csv table
+     * @param hasHeader if the first row of csv table is its header
+     * @throws IncorrectInputException if header row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public CsvReader(Reader source, boolean hasHeader) {
+        this(source, hasHeader, ",");
+    }
+
+    /**
+     * Creates a CsvReader over the given byte stream decoded with specified charset
+     * @param source is a byte stream of csv table
+     * @param charset is a charset of the stream
+     * @param hasHeader if the first row of csv table is its header
+     * @param delimiter is a string that separates cells in row
+     * @throws IncorrectInputException if header row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public CsvReader(InputStream source, Charset charset, boolean hasHeader, String delimiter) {
+        this(new InputStreamReader(source, charset), hasHeader, delimiter);
+    }
+
+    /**
+     * Opens a CsvReader of UTF-8 csv file. If table has header it is read immediately.
+     * Gzip files and zip archives (the first entry) are recognized by their signature and decompressed
+     * on a separate thread, so decompression of next rows overlaps with processing of read ones.
+     * @param file is a path to csv file, possibly compressed
+     * @param options are options of parsing
+     * @return reader of the file that should be closed
+     * @throws IOException if file can't be opened
+     * @throws IncorrectInputException if header row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public static CsvReader open(Path file, CsvParseOptions options) throws IOException {
+        InputStream source = PipelinedInputStream.open(file);
+        try {
+            return new CsvReader(new InputStreamReader(source, StandardCharsets.UTF_8), options, file.toString());
+        } catch (RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns header of the table or null if table doesn't have header
+     * @return header of the table
+     */
+    public String[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns true if there are more rows to read. The next row is scanned by this call.
+     * @return true if there are more rows
+     * @throws IncorrectInputException if the next row is incorrect meaning it doesn't follow RFC 4180
+     */
+    @Override
+    public boolean hasNext() {
+        if (!rowReady && !finished) {
+            rowReady = lexer.nextRow();
+            finished = !rowReady;
+            if (finished && listener != null) {
+                listener.parsed(new CsvParseMetrics(lexer, rows, System.nanoTime() - start, 0));
+            }
+        }
+        return rowReady;
+    }
+
+    /**
+     * Reads the next row of the table
+     * @return cells of the next row
+     * @throws NoSuchElementException if there are no more rows
+     * @throws IncorrectInputException if the row is incorrect meaning it doesn't follow RFC 4180
+     */
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("There are no more rows");
+        }
+        rowReady = false;
+        rows++;
+        return lexer.getRow();
+    }
+
+    /**
+     * Returns sequential stream of remaining rows. Closing the stream closes this reader.
+     * @return stream of rows
+     */
+    public Stream<String[]> stream() {
+        return streamOf(this);
+    }
+
+    private <E> Stream<E> streamOf(Iterator<E> iterator) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false
+        ).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns sequential stream of remaining rows mapped into objects of a record or a class by header names,
+     * see {@link RowMapper}. Objects are created right from scanned cells without arrays of strings.
+     * Closing the stream closes this reader.
+     * @param type is a record or a class with a constructor without parameters
+     * @param <T> is a type of objects
+     * @return stream of objects
+     * @throws IllegalArgumentException if table doesn't have header or columns can't be bound to the type
+     */
+    public <T> Stream<T> stream(Class<T> type) {
+        if (header == null) {
+            throw new IllegalArgumentException("Rows can be mapped into objects only in a table with header");
+        }
+        RowMapper<T> mapper = RowMapper.of(type, header);
+        Iterator<T> objects = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return CsvReader.this.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("There are no more rows");
+                }
+                rowReady = false;
+                rows++;
+                return mapper.map(lexer);
+            }
+        };
+        return streamOf(objects);
+    }
+
+    /**
+     * Writes remaining rows as json array of json objects (for each row) containing pairs
+     * "column header" - "value", see {@link CsvTable#writeJson(Writer)}. Rows are written as soon as
+     * they are read, so conversion runs in constant memory. The writer is flushed but not closed.
+     * @param out is a writer to write json to
+     * @throws IOException if writing fails
+     * @throws IncorrectInputException if a row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public void writeJson(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        String[] headers = null;
+        writer.beginArray();
+        while (hasNext()) {
+            String[] row = next();
+            if (headers == null) {
+                headers = CsvTable.getHeader(header, row.length);
+            }
+            writer.beginObject();
+            for (int col = 0; col < row.length; col++) {
+                writer.name(headers[col]).value(row[col]);
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    /**
+     * Writes remaining rows as json array of arrays corresponding rows, see {@link CsvTable#writeJsonArrays(Writer)}.
+     * Rows are written as soon as they are read, so conversion runs in constant memory.
+     * The writer is flushed but not closed.
+     * @param out is a writer to write json to
+     * @throws IOException if writing fails
+     * @throws IncorrectInputException if a row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public void writeJsonArrays(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        while (hasNext()) {
+            writer.beginArray();
+            for (String val : next()) {
+                writer.value(val);
+            }
+            writer.endArray();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    /**
+     * Writes remaining rows as Html table, see {@link CsvTable#toHtml()}. Rows are written as soon as
+     * they are read, so conversion runs in constant memory. The appendable isn't flushed or closed.
+     * @param out is an appendable to write html to
+     * @throws IOException if writing fails
+     * @throws IncorrectInputException if a row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public void writeHtml(Appendable out) throws IOException {
+        HtmlWriter writer = new HtmlWriter(out);
+        writer.writeHeader(header);
+        while (hasNext()) {
+            writer.startRow();
+            for (String val : next()) {
+                writer.writeCell(val);
+            }
+            writer.endRow();
+        }
+        writer.finish();
+    }
+
+    /**
+     * Closes underlying source
+     * @throws IOException if source can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lexer.close();
+    }
+}
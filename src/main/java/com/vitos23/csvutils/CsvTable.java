@@ -3,12 +3,38 @@ package com.vitos23.csvutils;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 public class CsvTable {
+    /**
+     * Type of join of two tables
+     */
+    public enum JoinType {
+        /**
+         * Only rows with matches in both tables
+         */
+        INNER,
+        /**
+         * All rows of the left table, with or without matches in the right table
+         */
+        LEFT_OUTER
+    }
+
     private String[] header;
-    private final String[][] table;
+    private TableStorage table;
+    private CsvMetricsListener metricsListener;
+    private ColumnIndex[] indexes;
 
     /**
      * Constructs a CsvTable instance with given header and content
@@ -16,8 +42,12 @@ public class CsvTable {
      * @param table is the content of the csv table
      */
     public CsvTable(String[] header, String[][] table) {
+        this(header, new ArrayStorage(table == null ? new String[][]{} : table));
+    }
+
+    CsvTable(String[] header, TableStorage table) {
         this.header = header;
-        this.table = table == null ? new String[][]{} : table;
+        this.table = table;
     }
 
     /**
@@ -33,10 +63,7 @@ public class CsvTable {
      * @return number of columns
      */
     public int getWidth() {
-        if (table.length == 0) {
-            return 0;
-        }
-        return table[0].length;
+        return table.getWidth();
     }
 
     /**
@@ -44,7 +71,14 @@ public class CsvTable {
      * @return number of rows
      */
     public int getHeight() {
-        return table.length;
+        return table.getHeight();
+    }
+
+    /**
+     * Returns estimated number of bytes retained by cells of the table. Header and indexes aren't counted
+     */
+    long estimateBytes() {
+        return table.estimateBytes();
     }
 
     /**
@@ -55,6 +89,13 @@ public class CsvTable {
         return header != null;
     }
 
+    /**
+     * Returns number of header names, it differs from the width of a table parsed from a header without rows
+     */
+    int getHeaderWidth() {
+        return header == null ? 0 : header.length;
+    }
+
     /**
      * Set a new header with valid size to table. New header can be null.
      * @param header is new header
@@ -70,6 +111,35 @@ public class CsvTable {
         this.header = header;
     }
 
+    /**
+     * Sets a listener of conversion metrics. Null disables collection of metrics.
+     * @param metricsListener is a listener of metrics or null
+     */
+    public void setMetricsListener(CsvMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    private long startConversion() {
+        return metricsListener == null ? 0 : System.nanoTime();
+    }
+
+    private void finishConversion(CsvConversionMetrics.Format format, long chars, long start) {
+        if (metricsListener != null) {
+            long cells = (long) getWidth() * getHeight();
+            metricsListener.converted(new CsvConversionMetrics(
+                    format, getHeight(), cells, chars, System.nanoTime() - start
+            ));
+        }
+    }
+
+    private Writer counting(Writer out) {
+        return metricsListener == null ? out : new CountingWriter(out);
+    }
+
+    private static long count(Writer out) {
+        return out instanceof CountingWriter ? ((CountingWriter) out).getCount() : -1;
+    }
+
     private boolean checkHeaderCell(int c) {
         return header != null && 0 <= c && c < header.length;
     }
@@ -117,9 +187,63 @@ public class CsvTable {
      */
     public String getCell(int row, int col) {
         checkCell(row, col);
-        return table[row][col];
+        return table.get(row, col);
+    }
+
+    /**
+     * Returns value of cell with given row and column indices as int. Numbering starts from 0.
+     * The value isn't parsed again if the column is stored as a primitive column.
+     * @param row is index of row of the cell
+     * @param col is index of column of the cell
+     * @return value of the cell
+     * @throws IndexOutOfBoundsException if specified cell doesn't exist
+     * @throws NumberFormatException if the cell value isn't an int
+     */
+    public int getInt(int row, int col) {
+        checkCell(row, col);
+        return table.getInt(row, col);
+    }
+
+    /**
+     * Returns value of cell with given row and column indices as long. Numbering starts from 0.
+     * The value isn't parsed again if the column is stored as a primitive column.
+     * @param row is index of row of the cell
+     * @param col is index of column of the cell
+     * @return value of the cell
+     * @throws IndexOutOfBoundsException if specified cell doesn't exist
+     * @throws NumberFormatException if the cell value isn't a long
+     */
+    public long getLong(int row, int col) {
+        checkCell(row, col);
+        return table.getLong(row, col);
+    }
+
+    /**
+     * Returns value of cell with given row and column indices as double. Numbering starts from 0.
+     * The value isn't parsed again if the column is stored as a primitive column.
+     * @param row is index of row of the cell
+     * @param col is index of column of the cell
+     * @return value of the cell
+     * @throws IndexOutOfBoundsException if specified cell doesn't exist
+     * @throws NumberFormatException if the cell value isn't a number
+     */
+    public double getDouble(int row, int col) {
+        checkCell(row, col);
+        return table.getDouble(row, col);
     }
 
+    /**
+     * Returns value of cell with given row and column indices as boolean, see {@link Boolean#parseBoolean(String)}.
+     * Numbering starts from 0. The value isn't parsed again if the column is stored as a primitive column.
+     * @param row is index of row of the cell
+     * @param col is index of column of the cell
+     * @return value of the cell
+     * @throws IndexOutOfBoundsException if specified cell doesn't exist
+     */
+    public boolean getBoolean(int row, int col) {
+        checkCell(row, col);
+        return table.getBoolean(row, col);
+    }
 
     /**
      * Sets a new value to cell with given row and column indices. Numbering starts from 0.
@@ -130,14 +254,224 @@ public class CsvTable {
      */
     public void setCell(int row, int col, String val) {
         checkCell(row, col);
-        table[row][col] = val;
+        if (indexes != null && indexes[col] != null) {
+            indexes[col].update(row, table.get(row, col), val);
+        }
+        table.set(row, col, val);
     }
 
-    private String escapeHtml(String s) {
-        s = s.replace("&", "&amp;");
-        s = s.replace("<", "&lt;");
-        s = s.replace(">", "&gt;");
-        return s;
+    /**
+     * Returns storage that rows and columns can be added to and removed from. Cells of other storages
+     * are copied into it once, on the first change of the shape of the table
+     */
+    private ChunkedStorage growable() {
+        boolean widthFromHeader = header != null && getHeight() == 0 && header.length != getWidth();
+        if (table instanceof ChunkedStorage && !widthFromHeader) {
+            return (ChunkedStorage) table;
+        }
+        ChunkedStorage res = new ChunkedStorage(widthFromHeader ? header.length : getWidth());
+        for (int row = 0; row < getHeight(); row++) {
+            String[] cells = new String[getWidth()];
+            for (int col = 0; col < cells.length; col++) {
+                cells[col] = table.get(row, col);
+            }
+            res.appendRow(cells);
+        }
+        table = res;
+        return res;
+    }
+
+    /**
+     * Appends a row to the end of the table in amortized constant time. Indexes are updated.
+     * A table without header, rows and columns takes the width of the first row.
+     * @param row are values of cells of the row, the array is copied
+     * @throws IllegalArgumentException if number of cells isn't equal to table width
+     */
+    public void appendRow(String... row) {
+        ChunkedStorage storage = growable();
+        if (row.length != storage.getWidth() && (storage.getHeight() > 0 || storage.getWidth() > 0)) {
+            throw new IllegalArgumentException(String.format(
+                    "Row has %d cells while table width is %d", row.length, storage.getWidth()
+            ));
+        }
+        storage.appendRow(row.clone());
+        if (indexes != null) {
+            for (int col = 0; col < indexes.length; col++) {
+                if (indexes[col] != null) {
+                    indexes[col].add(storage.getHeight() - 1, row[col]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends rows to the end of the table, see {@link #appendRow(String...)}. Rows before an incorrect one
+     * stay appended.
+     * @param rows is an iterator over rows, e.g. {@link CsvReader}
+     * @throws IllegalArgumentException if number of cells of a row isn't equal to table width
+     */
+    public void appendRows(Iterator<String[]> rows) {
+        while (rows.hasNext()) {
+            appendRow(rows.next());
+        }
+    }
+
+    /**
+     * Deletes the row, the following rows are shifted up. No rows are copied, rows are stored in chunks of 1024
+     * and deletion takes time proportional to 1024 + height / 1024. Numbers of the following rows are decremented
+     * in every index of the table, which takes time proportional to the table height for every indexed column.
+     * Drop indexes that aren't needed before deleting many rows, see {@link #dropIndex(int)}
+     * @param row is index of row
+     * @throws IndexOutOfBoundsException if specified row doesn't exist
+     */
+    public void deleteRow(int row) {
+        if (!(0 <= row && row < getHeight())) {
+            throw new IndexOutOfBoundsException("Row with index " + row + " doesn't exist");
+        }
+        if (indexes != null) {
+            for (int col = 0; col < indexes.length; col++) {
+                if (indexes[col] != null) {
+                    indexes[col].delete(row, table.get(row, col));
+                }
+            }
+        }
+        growable().deleteRow(row);
+    }
+
+    /**
+     * Appends a column with the same value in all rows. Rows aren't copied, the value is shared by them
+     * until their cells are set.
+     * @param name is header of the column, ignored if the table doesn't have header
+     * @param val is a value of the column in all rows
+     */
+    public void addColumn(String name, String val) {
+        growable().addColumn(val);
+        if (header != null) {
+            header = Arrays.copyOf(header, header.length + 1);
+            header[header.length - 1] = name;
+        }
+        if (indexes != null) {
+            indexes = Arrays.copyOf(indexes, indexes.length + 1);
+        }
+    }
+
+    /**
+     * Removes the column, the following columns are shifted left. Rows aren't copied
+     * @param col is index of column
+     * @throws IndexOutOfBoundsException if specified column doesn't exist
+     */
+    public void removeColumn(int col) {
+        checkColumn(col);
+        growable().removeColumn(col);
+        if (header != null) {
+            header = remove(header, col);
+        }
+        if (indexes != null) {
+            indexes = remove(indexes, col);
+        }
+    }
+
+    private static <T> T[] remove(T[] arr, int i) {
+        T[] res = Arrays.copyOf(arr, arr.length - 1);
+        System.arraycopy(arr, i + 1, res, i, res.length - i);
+        return res;
+    }
+
+    private void checkColumn(int col) {
+        if (!(0 <= col && col < getWidth())) {
+            throw new IndexOutOfBoundsException("Column with index " + col + " doesn't exist");
+        }
+    }
+
+    private void setIndex(int col, ColumnIndex index) {
+        if (indexes == null) {
+            indexes = new ColumnIndex[getWidth()];
+        }
+        indexes[col] = index;
+    }
+
+    /**
+     * <p>Builds a hash index of values of the column, so {@link #findRows(int, String)} takes constant time
+     * instead of scanning the column. The index is updated by {@link #setCell(int, int, String)}.
+     * Replaces existing index of the column.</p>
+     * <p>Lookups can run concurrently as long as the table isn't modified.</p>
+     * @param col is index of column
+     * @throws IndexOutOfBoundsException if specified column doesn't exist
+     */
+    public void createIndex(int col) {
+        checkColumn(col);
+        setIndex(col, new ColumnIndex.Hash(table, col));
+    }
+
+    /**
+     * <p>Builds a sorted index of values of the column with given order. Besides lookups by value it allows
+     * {@link #findRows(int, String, String)} to find rows by a range of values in logarithmic time.
+     * Null values go first. The index is updated by {@link #setCell(int, int, String)}.
+     * Replaces existing index of the column.</p>
+     * <p>Lookups can run concurrently as long as the table isn't modified.</p>
+     * @param col is index of column
+     * @param comparator is an order of values, e.g. {@code Comparator.naturalOrder()}
+     * @throws IndexOutOfBoundsException if specified column doesn't exist
+     */
+    public void createSortedIndex(int col, Comparator<String> comparator) {
+        checkColumn(col);
+        setIndex(col, new ColumnIndex.Sorted(table, col, comparator));
+    }
+
+    /**
+     * Removes index of the column if there is one
+     * @param col is index of column
+     * @throws IndexOutOfBoundsException if specified column doesn't exist
+     */
+    public void dropIndex(int col) {
+        checkColumn(col);
+        if (indexes != null) {
+            indexes[col] = null;
+        }
+    }
+
+    /**
+     * Returns rows where the column has given value. Uses index of the column if there is one,
+     * otherwise the column is scanned.
+     * @param col is index of column
+     * @param val is a value to find, can be null
+     * @return indices of rows in ascending order
+     * @throws IndexOutOfBoundsException if specified column doesn't exist
+     */
+    public int[] findRows(int col, String val) {
+        checkColumn(col);
+        if (indexes != null && indexes[col] != null) {
+            return indexes[col].find(val);
+        }
+        int[] res = new int[16];
+        int size = 0;
+        for (int row = 0; row < getHeight(); row++) {
+            if (Objects.equals(table.get(row, col), val)) {
+                if (size == res.length) {
+                    res = Arrays.copyOf(res, size * 2);
+                }
+                res[size++] = row;
+            }
+        }
+        return Arrays.copyOf(res, size);
+    }
+
+    /**
+     * Returns rows where value of the column is in range [from, to) according to the order
+     * of its sorted index, see {@link #createSortedIndex(int, Comparator)}
+     * @param col is index of column
+     * @param from is the lowest value of range, inclusive
+     * @param to is the highest value of range, exclusive
+     * @return indices of rows in ascending order
+     * @throws IndexOutOfBoundsException if specified column doesn't exist
+     * @throws IllegalStateException if the column doesn't have a sorted index
+     */
+    public int[] findRows(int col, String from, String to) {
+        checkColumn(col);
+        if (indexes == null || !(indexes[col] instanceof ColumnIndex.Sorted)) {
+            throw new IllegalStateException("Column " + col + " doesn't have a sorted index");
+        }
+        return ((ColumnIndex.Sorted) indexes[col]).findRange(from, to);
     }
 
     /**
@@ -146,33 +480,49 @@ public class CsvTable {
      */
     public String toHtml() {
         StringBuilder res = new StringBuilder();
-        res.append("<table>");
-        if (header != null) {
-            res.append("<thead><tr>");
-            for (String val : header) {
-                res.append("<th>").append(escapeHtml(val)).append("</th>");
-            }
-            res.append("</tr></thead>");
+        try {
+            writeHtml(res);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        res.append("<tbody>");
-        for (String[] row : table) {
-            res.append("<tr>");
-            for (String val : row) {
-                res.append("<td>").append(escapeHtml(val)).append("</td>");
+        return res.toString();
+    }
+
+    /**
+     * Writes Html representation of the table to the appendable in chunks, see {@link #toHtml()}.
+     * The appendable isn't flushed or closed.
+     * @param out is an appendable to write html to
+     * @throws IOException if writing fails
+     */
+    public void writeHtml(Appendable out) throws IOException {
+        long start = startConversion();
+        HtmlWriter writer = new HtmlWriter(out);
+        writer.writeHeader(header);
+        for (int row = 0; row < getHeight(); row++) {
+            writer.startRow();
+            for (int col = 0; col < getWidth(); col++) {
+                writer.writeCell(table.get(row, col));
             }
-            res.append("</tr>");
+            writer.endRow();
         }
-        res.append("</tbody></table>");
-        return res.toString();
+        writer.finish();
+        finishConversion(CsvConversionMetrics.Format.HTML, writer.getWritten(), start);
     }
 
     private String[] getHeader() {
-        String[] headers = new String[getWidth()];
+        return getHeader(header, getWidth());
+    }
+
+    /**
+     * Returns given header or "COL_%d" for columns that are missing in it
+     */
+    static String[] getHeader(String[] header, int width) {
+        String[] headers = new String[width];
         for (int i = 0; i < headers.length; i++) {
-            if (!checkHeaderCell(i)) {
+            if (header == null || i >= header.length) {
                 headers[i] = "COL_" + (i + 1);
             } else {
-                headers[i] = getColumnHeader(i);
+                headers[i] = header[i];
             }
         }
         return headers;
@@ -184,60 +534,237 @@ public class CsvTable {
      * @return JsonArray of json objects for each row
      */
     public JsonArray toJson() {
+        long start = startConversion();
         JsonArray res = new JsonArray();
 
         String[] headers = getHeader();
 
-        for (String[] row : table) {
+        for (int row = 0; row < getHeight(); row++) {
             JsonObject rowJson = new JsonObject();
-            for (int i = 0; i < row.length; i++) {
-                rowJson.add(headers[i], new JsonPrimitive(row[i]));
+            for (int col = 0; col < getWidth(); col++) {
+                rowJson.add(headers[col], new JsonPrimitive(table.get(row, col)));
             }
             res.add(rowJson);
         }
 
+        finishConversion(CsvConversionMetrics.Format.JSON, -1, start);
         return res;
     }
 
 
+    /**
+     * Writes the table as json array of json objects (for each row) containing pairs "column header" - "value"
+     * without building a json tree. If column header doesn't exist it is replaced with "COL_%d"
+     * where %d is the index of column (starts from 1). The writer is flushed but not closed.
+     * @param out is a writer to write json to
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Writer out) throws IOException {
+        long start = startConversion();
+        out = counting(out);
+        JsonWriter writer = new JsonWriter(out);
+        String[] headers = getHeader();
+        writer.beginArray();
+        for (int row = 0; row < getHeight(); row++) {
+            writer.beginObject();
+            for (int col = 0; col < getWidth(); col++) {
+                writer.name(headers[col]).value(table.get(row, col));
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+        finishConversion(CsvConversionMetrics.Format.JSON, count(out), start);
+    }
+
     /**
      * Converts the table into JsonArray of arrays corresponding rows. The header won't be included.
      * @return JsonArray of arrays.
      */
     public JsonArray toJsonArrays() {
+        long start = startConversion();
         JsonArray res = new JsonArray();
 
-        for (String[] row : table) {
+        for (int row = 0; row < getHeight(); row++) {
             JsonArray rowJson = new JsonArray();
-            for (String val : row) {
-                rowJson.add(val);
+            for (int col = 0; col < getWidth(); col++) {
+                rowJson.add(table.get(row, col));
             }
             res.add(rowJson);
         }
 
+        finishConversion(CsvConversionMetrics.Format.JSON_ARRAYS, -1, start);
         return res;
     }
 
+    /**
+     * Writes the table as json array of arrays corresponding rows without building a json tree.
+     * The header won't be included. The writer is flushed but not closed.
+     * @param out is a writer to write json to
+     * @throws IOException if writing fails
+     */
+    public void writeJsonArrays(Writer out) throws IOException {
+        long start = startConversion();
+        out = counting(out);
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        for (int row = 0; row < getHeight(); row++) {
+            writer.beginArray();
+            for (int col = 0; col < getWidth(); col++) {
+                writer.value(table.get(row, col));
+            }
+            writer.endArray();
+        }
+        writer.endArray();
+        writer.flush();
+        finishConversion(CsvConversionMetrics.Format.JSON_ARRAYS, count(out), start);
+    }
+
     /**
      * Converts the table into JsonObjects containing pairs "column header" - "array of column values".
      * If column header doesn't exist it is replaced with "COL_%d" where %d is the index of column (starts from 1).
      * @return JsonObject of pairs "column header" - "array of column values"
      */
     public JsonObject toJsonColumnArray() {
+        long start = startConversion();
         JsonObject res = new JsonObject();
 
         String[] headers = getHeader();
         for (int col = 0; col < getWidth(); col++) {
             JsonArray columnValues = new JsonArray();
             for (int row = 0; row < getHeight(); row++) {
-                columnValues.add(table[row][col]);
+                columnValues.add(table.get(row, col));
             }
             res.add(headers[col], columnValues);
         }
 
+        finishConversion(CsvConversionMetrics.Format.JSON_COLUMN_ARRAY, -1, start);
         return res;
     }
 
+    /**
+     * Writes the table as json object containing pairs "column header" - "array of column values"
+     * without building a json tree. If column header doesn't exist it is replaced with "COL_%d"
+     * where %d is the index of column (starts from 1). The writer is flushed but not closed.
+     * @param out is a writer to write json to
+     * @throws IOException if writing fails
+     */
+    public void writeJsonColumnArray(Writer out) throws IOException {
+        long start = startConversion();
+        out = counting(out);
+        JsonWriter writer = new JsonWriter(out);
+        String[] headers = getHeader();
+        writer.beginObject();
+        for (int col = 0; col < getWidth(); col++) {
+            writer.name(headers[col]).beginArray();
+            for (int row = 0; row < getHeight(); row++) {
+                writer.value(table.get(row, col));
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+        writer.flush();
+        finishConversion(CsvConversionMetrics.Format.JSON_COLUMN_ARRAY, count(out), start);
+    }
+
+    /**
+     * Maps all rows into objects of a record or a class binding columns by header names, see {@link RowMapper}
+     * @param type is a record or a class with a constructor without parameters
+     * @param <T> is a type of objects
+     * @return list of objects in order of rows
+     * @throws IllegalArgumentException if table doesn't have header or columns can't be bound to the type
+     */
+    public <T> List<T> toObjects(Class<T> type) {
+        return RowMapper.of(type, this).mapAll(this);
+    }
+
+    /**
+     * <p>Groups rows by values of key columns and computes aggregates of every group in a single pass.
+     * Returns a table with a row for every group: values of key columns followed by values of aggregates,
+     * groups are ordered by their first row. Header of the result consists of key column headers
+     * ("COL_%d" if table doesn't have header) and names of aggregates, see {@link Aggregate}.</p>
+     * @param keys are indices of key columns, groups of all rows are computed if there are no keys
+     * @param aggregates are functions to compute for every group
+     * @return table of groups
+     * @throws IndexOutOfBoundsException if some column doesn't exist
+     * @throws NumberFormatException if a cell of aggregated column isn't a number
+     */
+    public CsvTable groupBy(int[] keys, Aggregate... aggregates) {
+        return new GroupBy(table, keys, aggregates).run(header);
+    }
+
+    /**
+     * Groups rows like {@link #groupBy(int[], Aggregate...)}, ranges of rows are aggregated
+     * in parallel on the given fork-join pool. The table shouldn't be modified meanwhile.
+     * @param keys are indices of key columns, groups of all rows are computed if there are no keys
+     * @param pool is a fork-join pool to aggregate ranges of rows on
+     * @param aggregates are functions to compute for every group
+     * @return table of groups
+     * @throws IndexOutOfBoundsException if some column doesn't exist
+     * @throws NumberFormatException if a cell of aggregated column isn't a number
+     */
+    public CsvTable groupByParallel(int[] keys, ForkJoinPool pool, Aggregate... aggregates) {
+        return new GroupBy(table, keys, aggregates).runParallel(header, pool);
+    }
+
+    /**
+     * <p>Joins rows of this table with rows of the right table that have equal values in key columns,
+     * columns are matched by header names. Rows of the right table are put into a hash map, then rows of this
+     * table look up their matches, so the join takes time proportional to the size of tables and the result.</p>
+     * <p>The result has a row for every pair of matching rows in order of rows of this table, then of the right
+     * table. Left outer join also keeps rows of this table without matches, cells of the right table are empty
+     * in them. Header of the result is the header of this table followed by the header of the right table
+     * without key columns. A right column with the name of a column of this table gets prefix "right.",
+     * so names in the result are unique.</p>
+     * @param right is a table to join with
+     * @param type is a type of join
+     * @param keys are names of key columns, present in headers of both tables
+     * @return joined table
+     * @throws IllegalArgumentException if a table doesn't have header, there are no keys, a key column doesn't exist
+     * or names in the result are repeated even with the prefix
+     */
+    public CsvTable join(CsvTable right, JoinType type, String... keys) {
+        return new HashJoin(table, header, right.table, right.header, type, keys).run();
+    }
+
+    /**
+     * Joins tables like {@link #join(CsvTable, JoinType, String...)}, ranges of rows of this table look up
+     * their matches in parallel on the given fork-join pool. Tables shouldn't be modified meanwhile.
+     * @param right is a table to join with
+     * @param type is a type of join
+     * @param pool is a fork-join pool to look up matches of ranges of rows on
+     * @param keys are names of key columns, present in headers of both tables
+     * @return joined table
+     * @throws IllegalArgumentException if a table doesn't have header, there are no keys, a key column doesn't exist
+     * or names in the result are repeated even with the prefix
+     */
+    public CsvTable joinParallel(CsvTable right, JoinType type, ForkJoinPool pool, String... keys) {
+        return new HashJoin(table, header, right.table, right.header, type, keys).runParallel(pool);
+    }
+
+    /**
+     * <p>Writes a binary snapshot of the table (header and cells) to the file. The snapshot can be opened by
+     * {@link #openSnapshot(Path)} much faster than the csv source can be parsed again.</p>
+     * @param file is a path to write snapshot to, existing file is overwritten
+     * @throws IOException if writing fails
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        SnapshotStorage.write(header, table, file);
+    }
+
+    /**
+     * <p>Opens a snapshot written by {@link #writeSnapshot(Path)}. The file is memory-mapped and cells are
+     * decoded only when they are requested, so opening takes the same time for a table of any size.</p>
+     * <p>Cells can be changed by {@link #setCell(int, int, String)}, changes are kept in memory and aren't written
+     * to the file. The file shouldn't be changed while the table is used.</p>
+     * @param file is a path to snapshot file
+     * @return CsvTable instance backed by the file
+     * @throws IOException if file can't be read or isn't a snapshot
+     */
+    public static CsvTable openSnapshot(Path file) throws IOException {
+        return SnapshotStorage.open(file);
+    }
+
     /**
      * Returns true if this table is equal to table given as a parameter.
      * Csv tables are equal if their headers and content are equal
@@ -249,6 +776,17 @@ public class CsvTable {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         CsvTable table1 = (CsvTable) obj;
-        return Arrays.equals(header, table1.header) && Arrays.deepEquals(table, table1.table);
+        if (!Arrays.equals(header, table1.header)
+                || getWidth() != table1.getWidth() || getHeight() != table1.getHeight()) {
+            return false;
+        }
+        for (int row = 0; row < getHeight(); row++) {
+            for (int col = 0; col < getWidth(); col++) {
+                if (!Objects.equals(table.get(row, col), table1.table.get(row, col))) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,239 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.IncorrectInputException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>Cache of tables parsed from csv files, shared by threads. A file is identified by its path, size and time
+ * of the last modification, so a table is parsed again when the file is changed. Concurrent requests of the same
+ * file wait for a single parsing.</p>
+ * <p>Tables are evicted in order of the least recent use when the estimated number of bytes retained by cells
+ * of all cached tables exceeds the limit. Tables larger than the limit aren't cached at all. Cached tables are
+ * shared by all callers, so they must not be modified.</p>
+ * <pre>{@code
+ * CsvTableCache cache = new CsvTableCache(new CsvParseOptions().setHeader(true), 256L << 20);
+ * CsvTable rates = cache.get(Path.of("rates.csv"));
+ * }</pre>
+ */
+public class CsvTableCache {
+    private final CsvParseOptions options;
+    private final long maxBytes;
+    // guarded by this
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, Entry> loading = new HashMap<>();
+    private long bytes;
+    private long hitCount;
+    private long missCount;
+    private long loadCount;
+    private long evictionCount;
+
+    /**
+     * Creates an empty cache
+     * @param options are options of parsing, shared by all files
+     * @param maxBytes is the maximum estimated number of bytes retained by cached tables
+     * @throws IllegalArgumentException if maxBytes is negative
+     */
+    public CsvTableCache(CsvParseOptions options, long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Maximum size of cache can't be negative: " + maxBytes);
+        }
+        this.options = options;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * <p>Returns a table parsed from UTF-8 csv file, see {@link CsvParser#parse(Path, CsvParseOptions)}.
+     * The file is parsed only if it isn't cached or has been changed since it was cached.</p>
+     * @param file is a path to csv file, possibly compressed
+     * @return CsvTable instance shared with other callers
+     * @throws IOException if file can't be read
+     * @throws IncorrectInputException if source table is incorrect meaning it doesn't follow RFC 4180
+     * @throws IllegalStateException if the thread is interrupted while waiting for parsing by another thread
+     */
+    public CsvTable get(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Entry load;
+        boolean parse = false;
+        synchronized (this) {
+            Entry cached = entries.get(path);
+            if (cached != null && cached.matches(attributes)) {
+                hitCount++;
+                return cached.table.join();
+            }
+            missCount++;
+            load = loading.get(path);
+            if (load == null || !load.matches(attributes)) {
+                load = new Entry(attributes);
+                loading.put(path, load);
+                loadCount++;
+                parse = true;
+            }
+        }
+        return parse ? load(path, load) : await(load);
+    }
+
+    private CsvTable load(Path path, Entry load) throws IOException {
+        CsvTable table;
+        try {
+            table = CsvParser.parse(path, options);
+        } catch (IOException | RuntimeException | Error e) {
+            synchronized (this) {
+                loading.remove(path, load);
+            }
+            load.table.completeExceptionally(e);
+            throw e;
+        }
+        load.bytes = table.estimateBytes();
+        synchronized (this) {
+            loading.remove(path, load);
+            Entry previous = entries.remove(path);
+            if (previous != null) {
+                bytes -= previous.bytes;
+            }
+            if (load.bytes <= maxBytes) {
+                entries.put(path, load);
+                bytes += load.bytes;
+                evict();
+            }
+        }
+        load.table.complete(table);
+        return table;
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().bytes;
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    private static CsvTable await(Entry load) throws IOException {
+        try {
+            return load.table.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Waiting for parsing of csv file was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Removes the table of the file from the cache
+     * @param file is a path to csv file
+     */
+    public synchronized void invalidate(Path file) {
+        Entry entry = entries.remove(file.toAbsolutePath().normalize());
+        if (entry != null) {
+            bytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * Removes all tables from the cache
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns number of cached tables
+     * @return number of tables
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns estimated number of bytes retained by cached tables
+     * @return size of cached tables
+     */
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns number of requests answered by a cached table
+     * @return number of hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns number of requests that weren't answered by a cached table, including the ones that waited
+     * for parsing started by another request
+     * @return number of misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns number of times files were parsed
+     * @return number of loads
+     */
+    public synchronized long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Returns number of tables evicted because the cache exceeded its size
+     * @return number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "CsvTableCache{size=%d, estimatedBytes=%d, hitCount=%d, missCount=%d, loadCount=%d, evictionCount=%d}",
+                entries.size(), bytes, hitCount, missCount, loadCount, evictionCount
+        );
+    }
+
+    /**
+     * Table of a file with the attributes the file had when its parsing started
+     */
+    private static final class Entry {
+        private final long size;
+        private final FileTime lastModified;
+        private final CompletableFuture<CsvTable> table = new CompletableFuture<>();
+        private long bytes;
+
+        private Entry(BasicFileAttributes attributes) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified.equals(attributes.lastModifiedTime());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.vitos23.csvutils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+/**
+ * <p>Writes csv table to a character stream in the format read by {@link CsvParser}: rows end with CRLF, a cell is
+ * enclosed in quotes only if it contains a quote, a line separator or the first character of the delimiter, and
+ * quotes inside it are doubled. Whether a cell needs quotes is found by a single scan with a lookup table.</p>
+ * <p>Cells are copied into a fixed-size buffer that is passed to the stream when it is full,
+ * so nothing is allocated per cell. Null cells are written as empty ones.</p>
+ * <pre>{@code
+ * try (CsvWriter writer = new CsvWriter(new FileWriter(file), ";")) {
+ *     writer.writeTable(table);
+ * }
+ * }</pre>
+ */
+public class CsvWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+    private final String delimiter;
+    private final char delimiterStart;
+    private final boolean[] special = new boolean[128];
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int size;
+
+    /**
+     * Creates a CsvWriter over the given character stream
+     * @param out is a writer to write csv table to
+     * @param delimiter is a string that separates cells in row
+     * @throws IllegalArgumentException if delimiter is empty or starts with a quote or line separator
+     */
+    public CsvWriter(Writer out, String delimiter) {
+        if (delimiter.isEmpty() || delimiter.charAt(0) == '"' || CsvLexer.isLineSeparator(delimiter.charAt(0))) {
+            throw new IllegalArgumentException("Delimiter can't be empty or start with a quote or line separator");
+        }
+        this.out = out;
+        this.delimiter = delimiter;
+        this.delimiterStart = delimiter.charAt(0);
+        for (char c = 0; c < special.length; c++) {
+            special[c] = c == '"' || c == delimiterStart || CsvLexer.isLineSeparator(c);
+        }
+    }
+
+    /**
+     * Creates a CsvWriter over the given character stream. A comma (,) is used as a separator
+     * @param out is a writer to write csv table to
+     */
+    public CsvWriter(Writer out) {
+        this(out, ",");
+    }
+
+    /**
+     * Creates a CsvWriter over the given byte stream encoded with specified charset
+     * @param out is a byte stream to write csv table to
+     * @param charset is a charset of the stream
+     * @param delimiter is a string that separates cells in row
+     * @throws IllegalArgumentException if delimiter is empty or starts with a quote or line separator
+     */
+    public CsvWriter(OutputStream out, Charset charset, String delimiter) {
+        this(new OutputStreamWriter(out, charset), delimiter);
+    }
+
+    /**
+     * Writes one row
+     * @param row are values of cells
+     * @throws IOException if writing fails
+     */
+    public void writeRow(String... row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                write(delimiter);
+            }
+            // a row of one empty cell would be an empty line that is read as a row without cells
+            writeCell(row[i] == null ? "" : row[i], row.length == 1);
+        }
+        write("\r\n");
+    }
+
+    /**
+     * Writes all remaining rows of the iterator, e.g. of a {@link CsvReader}
+     * @param rows is an iterator of rows
+     * @throws IOException if writing fails
+     */
+    public void writeRows(Iterator<String[]> rows) throws IOException {
+        while (rows.hasNext()) {
+            writeRow(rows.next());
+        }
+    }
+
+    /**
+     * Writes the table with its header if it has one
+     * @param table is a table to write
+     * @throws IOException if writing fails
+     */
+    public void writeTable(CsvTable table) throws IOException {
+        if (table.hasHeader()) {
+            String[] header = new String[table.getHeaderWidth()];
+            for (int col = 0; col < header.length; col++) {
+                header[col] = table.getColumnHeader(col);
+            }
+            writeRow(header);
+        }
+        String[] row = new String[table.getWidth()];
+        for (int r = 0; r < table.getHeight(); r++) {
+            for (int col = 0; col < row.length; col++) {
+                row[col] = table.getCell(r, col);
+            }
+            writeRow(row);
+        }
+    }
+
+    private boolean needsQuotes(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 128 ? special[c] : c == delimiterStart || CsvLexer.isLineSeparator(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeCell(String s, boolean quoteEmpty) throws IOException {
+        if (!needsQuotes(s) && !(quoteEmpty && s.isEmpty())) {
+            write(s);
+            return;
+        }
+        writeChar('"');
+        int from = 0;
+        int quote;
+        while ((quote = s.indexOf('"', from)) >= 0) {
+            write(s, from, quote + 1);
+            writeChar('"');
+            from = quote + 1;
+        }
+        write(s, from, s.length());
+        writeChar('"');
+    }
+
+    private void writeChar(char c) throws IOException {
+        if (size == buffer.length) {
+            flushBuffer();
+        }
+        buffer[size++] = c;
+    }
+
+    private void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    private void write(String s, int from, int to) throws IOException {
+        while (from < to) {
+            if (size == buffer.length) {
+                flushBuffer();
+            }
+            int count = Math.min(to - from, buffer.length - size);
+            s.getChars(from, from + count, buffer, size);
+            size += count;
+            from += count;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+    }
+
+    /**
+     * Passes buffered characters to the stream and flushes it
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Passes buffered characters to the stream and closes it
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.vitos23.csvutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Groups rows of a table by values of key columns and computes aggregates of every group in a single pass.
+ * Groups are kept in a hash map, every group has primitive accumulators for all aggregates.
+ * Numbers are read by typed getters of the storage, so primitive columns aren't parsed. Aggregates are kept
+ * in long accumulators while all their values are integers, so large integers aren't rounded.</p>
+ * <p>In parallel mode row ranges are aggregated separately on a fork-join pool and their groups are merged.
+ * Groups are ordered by the first row of the group in both modes.</p>
+ */
+class GroupBy {
+    private static final int MIN_RANGE_SIZE = 1 << 16;
+
+    private final TableStorage table;
+    private final int[] keys;
+    private final Aggregate[] aggregates;
+
+    GroupBy(TableStorage table, int[] keys, Aggregate[] aggregates) {
+        for (int key : keys) {
+            checkColumn(table, key);
+        }
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.getKind() != Aggregate.Kind.COUNT) {
+                checkColumn(table, aggregate.getColumn());
+            }
+        }
+        this.table = table;
+        this.keys = keys.clone();
+        this.aggregates = aggregates.clone();
+    }
+
+    private static void checkColumn(TableStorage table, int col) {
+        if (!(0 <= col && col < table.getWidth())) {
+            throw new IndexOutOfBoundsException("Column with index " + col + " doesn't exist");
+        }
+    }
+
+    CsvTable run(String[] header) {
+        return toTable(header, aggregate(0, table.getHeight()));
+    }
+
+    CsvTable runParallel(String[] header, ForkJoinPool pool) {
+        int height = table.getHeight();
+        int rangeSize = Math.max(MIN_RANGE_SIZE, height / (pool.getParallelism() * 4) + 1);
+        List<Future<Map<Object, Group>>> futures = new ArrayList<>();
+        for (int start = 0; start < height; start += rangeSize) {
+            int from = start;
+            int to = Math.min(height, start + rangeSize);
+            futures.add(pool.submit((Callable<Map<Object, Group>>) () -> aggregate(from, to)));
+        }
+        Map<Object, Group> groups = new LinkedHashMap<>();
+        try {
+            for (Future<Map<Object, Group>> future : futures) {
+                future.get().forEach((key, group) -> groups.merge(key, group, Group::merge));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Aggregation was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return toTable(header, groups);
+    }
+
+    private Object keyOf(int row) {
+        if (keys.length == 1) {
+            return table.get(row, keys[0]);
+        }
+        String[] key = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            key[i] = table.get(row, keys[i]);
+        }
+        return new Key(key);
+    }
+
+    private Map<Object, Group> aggregate(int from, int to) {
+        Map<Object, Group> groups = new LinkedHashMap<>();
+        for (int row = from; row < to; row++) {
+            Group group = groups.computeIfAbsent(keyOf(row), key -> new Group(aggregates.length));
+            group.rows++;
+            for (int i = 0; i < aggregates.length; i++) {
+                Aggregate aggregate = aggregates[i];
+                if (aggregate.getKind() != Aggregate.Kind.COUNT && !table.isEmpty(row, aggregate.getColumn())) {
+                    add(group, i, row, aggregate.getColumn());
+                }
+            }
+        }
+        return groups;
+    }
+
+    private void add(Group group, int i, int row, int col) {
+        if (!group.doubles[i] && table.isLong(row, col)) {
+            group.add(i, table.getLong(row, col));
+        } else {
+            group.toDoubles(i);
+            group.add(i, table.getDouble(row, col));
+        }
+    }
+
+    private CsvTable toTable(String[] header, Map<Object, Group> groups) {
+        String[] headers = CsvTable.getHeader(header, table.getWidth());
+        String[] resHeader = new String[keys.length + aggregates.length];
+        for (int i = 0; i < keys.length; i++) {
+            resHeader[i] = headers[keys[i]];
+        }
+        for (int i = 0; i < aggregates.length; i++) {
+            resHeader[keys.length + i] = aggregates[i].getName(headers);
+        }
+        String[][] res = new String[groups.size()][];
+        int row = 0;
+        for (Map.Entry<Object, Group> entry : groups.entrySet()) {
+            String[] values = new String[resHeader.length];
+            if (keys.length == 1) {
+                values[0] = (String) entry.getKey();
+            } else {
+                System.arraycopy(((Key) entry.getKey()).values, 0, values, 0, keys.length);
+            }
+            for (int i = 0; i < aggregates.length; i++) {
+                values[keys.length + i] = entry.getValue().format(i, aggregates[i].getKind());
+            }
+            res[row++] = values;
+        }
+        return new CsvTable(resHeader, res);
+    }
+
+    /**
+     * Key of a group by several columns, also used by {@link HashJoin}
+     */
+    static final class Key {
+        private final String[] values;
+        private final int hash;
+
+        Key(String[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && hash == ((Key) obj).hash && Arrays.equals(values, ((Key) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Accumulators of one group. Every aggregate has its count of non-empty cells, sum, minimum and maximum.
+     * They are kept in long accumulators until a value isn't a long, then in double ones. A long sum that
+     * overflows goes on in a double accumulator.
+     * Double aggregates also have a flag that some of their values aren't integers.
+     */
+    private static final class Group {
+        private long rows;
+        private final long[] counts;
+        private final long[] longSums;
+        private final long[] longMins;
+        private final long[] longMaxs;
+        private final boolean[] doubles;
+        private final boolean[] overflowed;
+        private final double[] sums;
+        private final double[] mins;
+        private final double[] maxs;
+        private final boolean[] fractional;
+
+        Group(int size) {
+            counts = new long[size];
+            longSums = new long[size];
+            longMins = new long[size];
+            longMaxs = new long[size];
+            doubles = new boolean[size];
+            overflowed = new boolean[size];
+            sums = new double[size];
+            mins = new double[size];
+            maxs = new double[size];
+            fractional = new boolean[size];
+            Arrays.fill(longMins, Long.MAX_VALUE);
+            Arrays.fill(longMaxs, Long.MIN_VALUE);
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int i, long val) {
+            counts[i]++;
+            longMins[i] = Math.min(longMins[i], val);
+            longMaxs[i] = Math.max(longMaxs[i], val);
+            if (overflowed[i]) {
+                sums[i] += val;
+                return;
+            }
+            long sum = longSums[i] + val;
+            if (((longSums[i] ^ sum) & (val ^ sum)) < 0) {
+                overflowed[i] = true;
+                sums[i] = (double) longSums[i] + val;
+            } else {
+                longSums[i] = sum;
+            }
+        }
+
+        void add(int i, double val) {
+            counts[i]++;
+            sums[i] += val;
+            mins[i] = Math.min(mins[i], val);
+            maxs[i] = Math.max(maxs[i], val);
+            fractional[i] |= val != Math.rint(val) || Double.isInfinite(val);
+        }
+
+        /**
+         * Moves values of long accumulators of the aggregate into double ones
+         */
+        void toDoubles(int i) {
+            if (doubles[i]) {
+                return;
+            }
+            doubles[i] = true;
+            if (counts[i] > 0) {
+                sums[i] = overflowed[i] ? sums[i] : longSums[i];
+                mins[i] = longMins[i];
+                maxs[i] = longMaxs[i];
+            }
+        }
+
+        /**
+         * Returns the sum of a long aggregate, rounded if it has overflowed
+         */
+        private double longSum(int i) {
+            return overflowed[i] ? sums[i] : longSums[i];
+        }
+
+        Group merge(Group other) {
+            rows += other.rows;
+            for (int i = 0; i < counts.length; i++) {
+                if (!doubles[i] && !other.doubles[i]) {
+                    long sum = longSums[i] + other.longSums[i];
+                    if (overflowed[i] || other.overflowed[i]
+                            || ((longSums[i] ^ sum) & (other.longSums[i] ^ sum)) < 0) {
+                        sums[i] = longSum(i) + other.longSum(i);
+                        overflowed[i] = true;
+                    } else {
+                        longSums[i] = sum;
+                    }
+                    counts[i] += other.counts[i];
+                    longMins[i] = Math.min(longMins[i], other.longMins[i]);
+                    longMaxs[i] = Math.max(longMaxs[i], other.longMaxs[i]);
+                    continue;
+                }
+                toDoubles(i);
+                other.toDoubles(i);
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+                mins[i] = Math.min(mins[i], other.mins[i]);
+                maxs[i] = Math.max(maxs[i], other.maxs[i]);
+                fractional[i] |= other.fractional[i];
+            }
+            return this;
+        }
+
+        String format(int i, Aggregate.Kind kind) {
+            if (kind == Aggregate.Kind.COUNT) {
+                return Long.toString(rows);
+            }
+            if (counts[i] == 0) {
+                return "";
+            }
+            if (!doubles[i]) {
+                switch (kind) {
+                    case SUM:
+                        return overflowed[i] ? Double.toString(sums[i]) : Long.toString(longSums[i]);
+                    case MIN:
+                        return Long.toString(longMins[i]);
+                    case MAX:
+                        return Long.toString(longMaxs[i]);
+                    default:
+                        return Double.toString(longSum(i) / counts[i]);
+                }
+            }
+            switch (kind) {
+                case SUM:
+                    return formatNumber(sums[i], fractional[i]);
+                case MIN:
+                    return formatNumber(mins[i], fractional[i]);
+                case MAX:
+                    return formatNumber(maxs[i], fractional[i]);
+                default:
+                    return Double.toString(sums[i] / counts[i]);
+            }
+        }
+
+        private static String formatNumber(double val, boolean fractional) {
+            if (!fractional && Math.abs(val) < 0x1p53) {
+                return Long.toString((long) val);
+            }
+            return Double.toString(val);
+        }
+    }
+}
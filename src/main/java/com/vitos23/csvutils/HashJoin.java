@@ -0,0 +1,176 @@
+package com.vitos23.csvutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Joins rows of two tables with equal values of key columns. Rows of the right table are put into a hash map
+ * by key (build), then every row of the left table looks up its matches (probe), so the join takes time
+ * proportional to the size of tables and the result.</p>
+ * <p>Rows of the right table with the same key are chained through an array of row numbers in order of rows,
+ * the map keeps only the first row of every key. In parallel mode ranges of left rows are probed separately
+ * on a fork-join pool and their results are concatenated.</p>
+ */
+class HashJoin {
+    private static final int MIN_RANGE_SIZE = 1 << 16;
+    private static final String RIGHT_PREFIX = "right.";
+
+    private final TableStorage left;
+    private final TableStorage right;
+    private final String[] header;
+    private final int[] leftKeys;
+    private final int[] rightKeys;
+    private final int[] rightColumns;
+    private final boolean outer;
+    private final Map<Object, Integer> heads = new HashMap<>();
+    private final int[] next;
+
+    HashJoin(TableStorage left, String[] leftHeader, TableStorage right, String[] rightHeader,
+            CsvTable.JoinType type, String[] keys) {
+        if (leftHeader == null || rightHeader == null) {
+            throw new IllegalArgumentException("Tables should have header to be joined by column names");
+        }
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        this.leftKeys = new int[keys.length];
+        this.rightKeys = new int[keys.length];
+        boolean[] isKey = new boolean[rightHeader.length];
+        for (int i = 0; i < keys.length; i++) {
+            leftKeys[i] = columnOf(leftHeader, keys[i], "left");
+            rightKeys[i] = columnOf(rightHeader, keys[i], "right");
+            if (isKey[rightKeys[i]]) {
+                throw new IllegalArgumentException("Key column '" + keys[i] + "' is repeated");
+            }
+            isKey[rightKeys[i]] = true;
+        }
+        this.rightColumns = new int[rightHeader.length - keys.length];
+        this.header = new String[leftHeader.length + rightColumns.length];
+        System.arraycopy(leftHeader, 0, header, 0, leftHeader.length);
+        Set<String> names = new HashSet<>(Arrays.asList(leftHeader));
+        int j = 0;
+        for (int col = 0; col < rightHeader.length; col++) {
+            if (!isKey[col]) {
+                String name = names.contains(rightHeader[col]) ? RIGHT_PREFIX + rightHeader[col] : rightHeader[col];
+                if (!names.add(name)) {
+                    throw new IllegalArgumentException("Column '" + name + "' is repeated in the joined table");
+                }
+                header[leftHeader.length + j] = name;
+                rightColumns[j++] = col;
+            }
+        }
+        this.left = left;
+        this.right = right;
+        this.outer = type == CsvTable.JoinType.LEFT_OUTER;
+        this.next = new int[right.getHeight()];
+    }
+
+    private static int columnOf(String[] header, String name, String side) {
+        for (int col = 0; col < header.length; col++) {
+            if (name.equals(header[col])) {
+                return col;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Column '%s' doesn't exist in the %s table", name, side));
+    }
+
+    private void build() {
+        for (int row = right.getHeight() - 1; row >= 0; row--) {
+            Integer head = heads.put(keyOf(right, rightKeys, row), row);
+            next[row] = head == null ? -1 : head;
+        }
+    }
+
+    CsvTable run() {
+        build();
+        return toTable(List.of(probe(0, left.getHeight())));
+    }
+
+    CsvTable runParallel(ForkJoinPool pool) {
+        build();
+        int height = left.getHeight();
+        int rangeSize = Math.max(MIN_RANGE_SIZE, height / (pool.getParallelism() * 4) + 1);
+        List<Future<List<String[]>>> futures = new ArrayList<>();
+        for (int start = 0; start < height; start += rangeSize) {
+            int from = start;
+            int to = Math.min(height, start + rangeSize);
+            futures.add(pool.submit((Callable<List<String[]>>) () -> probe(from, to)));
+        }
+        List<List<String[]>> ranges = new ArrayList<>(futures.size());
+        try {
+            for (Future<List<String[]>> future : futures) {
+                ranges.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Join was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return toTable(ranges);
+    }
+
+    private static Object keyOf(TableStorage table, int[] keys, int row) {
+        if (keys.length == 1) {
+            return table.get(row, keys[0]);
+        }
+        String[] key = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            key[i] = table.get(row, keys[i]);
+        }
+        return new GroupBy.Key(key);
+    }
+
+    private List<String[]> probe(int from, int to) {
+        List<String[]> res = new ArrayList<>();
+        int leftWidth = header.length - rightColumns.length;
+        for (int row = from; row < to; row++) {
+            Integer head = heads.get(keyOf(left, leftKeys, row));
+            if (head == null && !outer) {
+                continue;
+            }
+            String[] leftCells = new String[leftWidth];
+            for (int col = 0; col < leftWidth; col++) {
+                leftCells[col] = left.get(row, col);
+            }
+            if (head == null) {
+                String[] cells = new String[header.length];
+                System.arraycopy(leftCells, 0, cells, 0, leftWidth);
+                Arrays.fill(cells, leftWidth, cells.length, "");
+                res.add(cells);
+                continue;
+            }
+            for (int match = head; match != -1; match = next[match]) {
+                String[] cells = new String[header.length];
+                System.arraycopy(leftCells, 0, cells, 0, leftWidth);
+                for (int col = 0; col < rightColumns.length; col++) {
+                    cells[leftWidth + col] = right.get(match, rightColumns[col]);
+                }
+                res.add(cells);
+            }
+        }
+        return res;
+    }
+
+    private CsvTable toTable(List<List<String[]>> ranges) {
+        ChunkedStorage res = new ChunkedStorage(header.length);
+        for (List<String[]> rows : ranges) {
+            for (String[] row : rows) {
+                res.appendRow(row);
+            }
+        }
+        return new CsvTable(header, res);
+    }
+}
@@ -0,0 +1,117 @@
+package com.vitos23.csvutils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Writes html table to an Appendable through a fixed-size buffer. Cell values are escaped
+ * in a single scan while being copied into the buffer.
+ */
+class HtmlWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Appendable out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int size;
+    private long written;
+
+    HtmlWriter(Appendable out) {
+        this.out = out;
+    }
+
+    void writeHeader(String[] header) throws IOException {
+        write("<table>");
+        if (header != null) {
+            write("<thead><tr>");
+            for (String val : header) {
+                write("<th>");
+                writeEscaped(val);
+                write("</th>");
+            }
+            write("</tr></thead>");
+        }
+        write("<tbody>");
+    }
+
+    void startRow() throws IOException {
+        write("<tr>");
+    }
+
+    void writeCell(String val) throws IOException {
+        write("<td>");
+        writeEscaped(val);
+        write("</td>");
+    }
+
+    void endRow() throws IOException {
+        write("</tr>");
+    }
+
+    /**
+     * Returns number of characters passed to the appendable
+     */
+    long getWritten() {
+        return written;
+    }
+
+    /**
+     * Writes closing tags and passes the rest of the buffer to the appendable
+     */
+    void finish() throws IOException {
+        write("</tbody></table>");
+        flushBuffer();
+    }
+
+    private void write(String s) throws IOException {
+        if (size + s.length() > buffer.length) {
+            flushBuffer();
+        }
+        s.getChars(0, s.length(), buffer, size);
+        size += s.length();
+    }
+
+    private void writeEscaped(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            if (buffer.length - size < 5) {
+                flushBuffer();
+            }
+            char c = s.charAt(i);
+            switch (c) {
+                case '&':
+                    buffer[size++] = '&';
+                    buffer[size++] = 'a';
+                    buffer[size++] = 'm';
+                    buffer[size++] = 'p';
+                    buffer[size++] = ';';
+                    break;
+                case '<':
+                    buffer[size++] = '&';
+                    buffer[size++] = 'l';
+                    buffer[size++] = 't';
+                    buffer[size++] = ';';
+                    break;
+                case '>':
+                    buffer[size++] = '&';
+                    buffer[size++] = 'g';
+                    buffer[size++] = 't';
+                    buffer[size++] = ';';
+                    break;
+                default:
+                    buffer[size++] = c;
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(buffer, 0, size);
+        } else if (out instanceof Writer) {
+            ((Writer) out).write(buffer, 0, size);
+        } else {
+            out.append(CharBuffer.wrap(buffer, 0, size));
+        }
+        written += size;
+        size = 0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.IncorrectInputException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * <p>Parses a growing UTF-8 csv file incrementally. Every {@link #poll(Consumer)} parses only bytes appended since
+ * the previous one and emits rows that are complete, i.e. ended by a line separator. A row or a quoted cell that
+ * isn't complete yet is parsed again by the next poll, when the rest of it is appended.</p>
+ * <p>Parser state can be saved by {@link #checkpoint()} and restored by
+ * {@link #IncrementalCsvParser(Path, CsvParseOptions, Checkpoint)}, e.g. after a restart.
+ * Csv table should follow RFC 4180. Options that concern storage of parsed table are ignored.
+ * In lenient mode rows of errors are numbered from the start of the file and offsets are in bytes.</p>
+ * <pre>{@code
+ * IncrementalCsvParser parser = new IncrementalCsvParser(file, new CsvParseOptions().setHeader(true));
+ * while (running) {
+ *     parser.poll(row -> process(row));
+ *     save(parser.checkpoint());
+ *     Thread.sleep(1000);
+ * }
+ * }</pre>
+ */
+public class IncrementalCsvParser {
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private final Path file;
+    private final CsvParseOptions options;
+    private long offset;
+    private long rowTotal;
+    private boolean pendingCr;
+    private boolean headerRead;
+    private String[] header;
+    private int width = -1;
+    private String[] selectedHeader;
+
+    /**
+     * Creates a parser that starts from the beginning of the file
+     * @param file is a path to csv file
+     * @param options are options of parsing
+     */
+    public IncrementalCsvParser(Path file, CsvParseOptions options) {
+        this.file = file;
+        this.options = options;
+    }
+
+    /**
+     * Creates a parser that resumes from the checkpoint of a parser of the same file
+     * @param file is a path to csv file
+     * @param options are options of parsing, should be the same as options of the parser that made the checkpoint
+     * @param checkpoint is a state of parser
+     */
+    public IncrementalCsvParser(Path file, CsvParseOptions options, Checkpoint checkpoint) {
+        this(file, options);
+        this.offset = checkpoint.offset;
+        this.rowTotal = checkpoint.rowTotal;
+        this.pendingCr = checkpoint.pendingCr;
+        this.headerRead = checkpoint.headerRead;
+        this.header = checkpoint.header == null ? null : checkpoint.header.clone();
+        this.width = checkpoint.width;
+        if (headerRead) {
+            selectedHeader = options.apply(new Utf8Lexer(ByteBuffer.allocate(0), options.getDelimiter()), header);
+        }
+    }
+
+    /**
+     * Returns header of the table with only selected columns. It is known after a poll that has read the header,
+     * null is returned before that or if table doesn't have header
+     * @return header of the table
+     */
+    public String[] getHeader() {
+        return selectedHeader == null ? null : selectedHeader.clone();
+    }
+
+    /**
+     * Returns number of bytes of the file that are parsed
+     * @return offset of the first row that isn't parsed yet
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns current state of the parser
+     * @return state of the parser
+     */
+    public Checkpoint checkpoint() {
+        return new Checkpoint(
+                offset, rowTotal, pendingCr, headerRead, header == null ? null : header.clone(), width
+        );
+    }
+
+    /**
+     * Parses bytes appended to the file since the previous poll and passes complete rows to the consumer.
+     * The offset moves past a row only when the consumer has accepted it, so if parsing or the consumer fails,
+     * the next poll starts from the failed row.
+     * @param consumer is a consumer of rows
+     * @return number of rows passed to the consumer
+     * @throws IOException if file can't be read or is shorter than parsed part
+     * @throws IncorrectInputException if a row is incorrect meaning it doesn't follow RFC 4180
+     */
+    public int poll(Consumer<? super String[]> consumer) throws IOException {
+        int rows = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < offset) {
+                throw new IOException("File is shorter than its parsed part: " + file);
+            }
+            byte[] buffer = new byte[BLOCK_SIZE];
+            // position of the buffer start in the file
+            long base = offset;
+            int length = 0;
+            while (true) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, length, buffer.length - length), base + length);
+                if (read <= 0) {
+                    break;
+                }
+                length += read;
+                int start = 0;
+                if (pendingCr) {
+                    if (buffer[0] == '\n') {
+                        start = 1;
+                        offset = base + 1;
+                    }
+                    pendingCr = false;
+                }
+                int end = Math.max(start, findRowsEnd(buffer, start, length));
+                if (end > start) {
+                    rows += parse(buffer, start, end, base, consumer);
+                }
+                System.arraycopy(buffer, end, buffer, 0, length - end);
+                length -= end;
+                base += end;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns position after the last line separator that isn't inside quotes. Whether a position is inside
+     * quotes is known from the parity of the number of quotes before it, as the start is a row boundary.
+     * Bytes of quotes and ASCII line separators never occur inside multibyte UTF-8 sequences.
+     */
+    private static int findRowsEnd(byte[] buffer, int start, int length) {
+        boolean inQuotes = false;
+        int end = start;
+        for (int i = start; i < length; i++) {
+            byte b = buffer[i];
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (inQuotes) {
+                continue;
+            } else if (b == '\n' || b == '\r' || b == 0x0b || b == 0x0c) {
+                if (b == '\r' && i + 1 < length && buffer[i + 1] == '\n') {
+                    i++;
+                }
+                end = i + 1;
+            } else if (b == (byte) 0xc2 && i + 1 < length && buffer[i + 1] == (byte) 0x85) {
+                end = i + 2;
+            } else if (b == (byte) 0xe2 && i + 2 < length && buffer[i + 1] == (byte) 0x80
+                    && (buffer[i + 2] == (byte) 0xa8 || buffer[i + 2] == (byte) 0xa9)) {
+                end = i + 3;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Parses complete rows of a block and moves the state past every row accepted by the consumer
+     * @param start is a position of the block in the buffer
+     * @param end is a position after the last row of the block
+     * @param base is an offset of the buffer in the file
+     */
+    private int parse(byte[] buffer, int start, int end, long base, Consumer<? super String[]> consumer) {
+        Utf8Lexer lexer = new Utf8Lexer(ByteBuffer.wrap(buffer, start, end - start), options.getDelimiter());
+        long rowBase = rowTotal;
+        lexer.setSourceName(file.toString());
+        lexer.setErrorBase(rowBase, base + start);
+        lexer.setCheckWidth(true);
+        lexer.setWidth(width);
+        if (options.hasHeader() && !headerRead) {
+            if (!lexer.nextRow()) {
+                return 0;
+            }
+            header = lexer.getRow();
+            headerRead = true;
+            commit(lexer, buffer, start, base, rowBase);
+        }
+        selectedHeader = options.apply(lexer, header);
+        int count = 0;
+        while (lexer.nextRow()) {
+            consumer.accept(lexer.getRow());
+            count++;
+            commit(lexer, buffer, start, base, rowBase);
+        }
+        commit(lexer, buffer, start, base, rowBase);
+        return count;
+    }
+
+    /**
+     * Moves the state past rows read by the lexer
+     */
+    private void commit(RowLexer lexer, byte[] buffer, int start, long base, long rowBase) {
+        int end = start + (int) lexer.getPosition();
+        if (end > start) {
+            offset = base + end;
+            pendingCr = buffer[end - 1] == '\r';
+            rowTotal = rowBase + lexer.getRowTotal();
+            width = lexer.getWidth();
+        }
+    }
+
+    /**
+     * State of {@link IncrementalCsvParser}: offset of the first row that isn't parsed and header of the table.
+     * Can be serialized.
+     */
+    public static final class Checkpoint implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long offset;
+        private final long rowTotal;
+        private final boolean pendingCr;
+        private final boolean headerRead;
+        private final String[] header;
+        private final int width;
+
+        private Checkpoint(long offset, long rowTotal, boolean pendingCr, boolean headerRead, String[] header,
+                int width) {
+            this.offset = offset;
+            this.rowTotal = rowTotal;
+            this.pendingCr = pendingCr;
+            this.headerRead = headerRead;
+            this.header = header;
+            this.width = width;
+        }
+
+        /**
+         * Returns number of bytes of the file that are parsed
+         * @return offset of the first row that isn't parsed
+         */
+        public long getOffset() {
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.vitos23.csvutils;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Listener that sums metrics of all parsings and conversions it receives and exposes the totals as
+ * an MBean. Counters are {@link LongAdder}s, so one instance can be shared by tables parsed on many threads.</p>
+ * <pre>{@code
+ * JmxCsvMetrics metrics = new JmxCsvMetrics();
+ * metrics.register("ingest");
+ * CsvTable table = CsvParser.parse(source, new CsvParseOptions().setMetricsListener(metrics));
+ * }</pre>
+ */
+public class JmxCsvMetrics implements CsvMetricsListener, JmxCsvMetricsMBean {
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parsedChars = new LongAdder();
+    private final LongAdder parsedBytes = new LongAdder();
+    private final LongAdder parsedRows = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+    private final LongAdder malformedRows = new LongAdder();
+    private final LongAdder parsedCells = new LongAdder();
+    private final LongAdder quotedCells = new LongAdder();
+    private final LongAccumulator maxRowWidth = new LongAccumulator(Math::max, 0);
+    private final LongAdder parseNanos = new LongAdder();
+    private volatile long lastEstimatedBytes;
+    private final LongAccumulator maxEstimatedBytes = new LongAccumulator(Math::max, 0);
+    private final LongAdder conversionCount = new LongAdder();
+    private final LongAdder convertedRows = new LongAdder();
+    private final LongAdder writtenChars = new LongAdder();
+    private final LongAdder conversionNanos = new LongAdder();
+
+    /**
+     * Registers this instance in the platform MBean server
+     * @param name is a value of "name" key of the object name
+     * @return object name of the registered MBean
+     * @throws JMException if name is invalid or already registered
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = objectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Unregisters MBean registered by {@link #register(String)}
+     * @param name is a value of "name" key of the object name
+     * @throws JMException if name is invalid or isn't registered
+     */
+    public void unregister(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("com.vitos23.csvutils:type=CsvMetrics,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public void parsed(CsvParseMetrics metrics) {
+        parseCount.increment();
+        parsedChars.add(metrics.getChars());
+        parsedBytes.add(metrics.getBytes());
+        parsedRows.add(metrics.getRows());
+        rejectedRows.add(metrics.getRejectedRows());
+        malformedRows.add(metrics.getMalformedRows());
+        parsedCells.add(metrics.getCells());
+        quotedCells.add(metrics.getQuotedCells());
+        maxRowWidth.accumulate(metrics.getMaxRowWidth());
+        parseNanos.add(metrics.getNanos());
+        if (metrics.getEstimatedBytes() > 0) {
+            lastEstimatedBytes = metrics.getEstimatedBytes();
+            maxEstimatedBytes.accumulate(metrics.getEstimatedBytes());
+        }
+    }
+
+    @Override
+    public void converted(CsvConversionMetrics metrics) {
+        conversionCount.increment();
+        convertedRows.add(metrics.getRows());
+        writtenChars.add(Math.max(metrics.getChars(), 0));
+        conversionNanos.add(metrics.getNanos());
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    @Override
+    public long getParsedChars() {
+        return parsedChars.sum();
+    }
+
+    @Override
+    public long getParsedBytes() {
+        return parsedBytes.sum();
+    }
+
+    @Override
+    public long getParsedRows() {
+        return parsedRows.sum();
+    }
+
+    @Override
+    public long getRejectedRows() {
+        return rejectedRows.sum();
+    }
+
+    @Override
+    public long getMalformedRows() {
+        return malformedRows.sum();
+    }
+
+    @Override
+    public long getParsedCells() {
+        return parsedCells.sum();
+    }
+
+    @Override
+    public long getQuotedCells() {
+        return quotedCells.sum();
+    }
+
+    @Override
+    public long getMaxRowWidth() {
+        return maxRowWidth.get();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public double getParseCharsPerSecond() {
+        long nanos = parseNanos.sum();
+        return nanos == 0 ? 0 : parsedChars.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public double getParseBytesPerSecond() {
+        long nanos = parseNanos.sum();
+        return nanos == 0 ? 0 : parsedBytes.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getLastEstimatedBytes() {
+        return lastEstimatedBytes;
+    }
+
+    @Override
+    public long getMaxEstimatedBytes() {
+        return maxEstimatedBytes.get();
+    }
+
+    @Override
+    public long getConversionCount() {
+        return conversionCount.sum();
+    }
+
+    @Override
+    public long getConvertedRows() {
+        return convertedRows.sum();
+    }
+
+    @Override
+    public long getWrittenChars() {
+        return writtenChars.sum();
+    }
+
+    @Override
+    public long getConversionNanos() {
+        return conversionNanos.sum();
+    }
+
+    /**
+     * Sets all counters to zero
+     */
+    @Override
+    public void reset() {
+        parseCount.reset();
+        parsedChars.reset();
+        parsedBytes.reset();
+        parsedRows.reset();
+        rejectedRows.reset();
+        malformedRows.reset();
+        parsedCells.reset();
+        quotedCells.reset();
+        maxRowWidth.reset();
+        parseNanos.reset();
+        lastEstimatedBytes = 0;
+        maxEstimatedBytes.reset();
+        conversionCount.reset();
+        convertedRows.reset();
+        writtenChars.reset();
+        conversionNanos.reset();
+    }
+}
@@ -0,0 +1,44 @@
+package com.vitos23.csvutils;
+
+/**
+ * Attributes of {@link JmxCsvMetrics} exposed over JMX
+ */
+public interface JmxCsvMetricsMBean {
+    long getParseCount();
+
+    long getParsedChars();
+
+    long getParsedBytes();
+
+    long getParsedRows();
+
+    long getRejectedRows();
+
+    long getMalformedRows();
+
+    long getParsedCells();
+
+    long getQuotedCells();
+
+    long getMaxRowWidth();
+
+    long getParseNanos();
+
+    double getParseCharsPerSecond();
+
+    double getParseBytesPerSecond();
+
+    long getLastEstimatedBytes();
+
+    long getMaxEstimatedBytes();
+
+    long getConversionCount();
+
+    long getConvertedRows();
+
+    long getWrittenChars();
+
+    long getConversionNanos();
+
+    void reset();
+}
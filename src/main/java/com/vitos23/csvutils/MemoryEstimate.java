@@ -0,0 +1,27 @@
+package com.vitos23.csvutils;
+
+/**
+ * Rough sizes of objects on a 64-bit JVM with compressed references and compact strings
+ */
+final class MemoryEstimate {
+    static final int OBJECT_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private static final int ARRAY_HEADER = 16;
+    private static final int STRING_OBJECT = 24;
+
+    private MemoryEstimate() {
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    static long string(String s) {
+        return s == null ? 0 : STRING_OBJECT + array(s.length(), 1);
+    }
+}
@@ -0,0 +1,170 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.IncorrectInputException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses memory-mapped UTF-8 csv file in chunks on a fork-join pool.
+ * Chunks are split right after a line separator that is not inside a quoted cell, separators are the ones
+ * the lexer accepts. Whether a position is inside quotes is known from the parity of the number of quotes
+ * before it, because both opening/closing quotes and escaped quotes ("") come in pairs.
+ * Chunks are scanned by {@link Utf8Lexer} right in the mapping and their rows are appended to one storage.
+ */
+class ParallelCsvParser {
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    private static final long MAX_CHUNK_SIZE = 1 << 29;
+
+    private final Path file;
+    private final boolean hasHeader;
+    private final String delimiter;
+    private final ForkJoinPool pool;
+
+    ParallelCsvParser(Path file, boolean hasHeader, String delimiter, ForkJoinPool pool) {
+        this.file = file;
+        this.hasHeader = hasHeader;
+        this.delimiter = delimiter;
+        this.pool = pool;
+    }
+
+    CsvTable parse() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.min(MAX_CHUNK_SIZE,
+                    Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4L)));
+            int chunkCnt = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+
+            List<Integer> quoteCounts = invokeAll(chunkCnt, i -> countQuotes(
+                    channel, i * chunkSize, Math.min(size, (i + 1) * chunkSize)
+            ));
+            boolean[] inQuotes = new boolean[chunkCnt];
+            for (int i = 1; i < chunkCnt; i++) {
+                inQuotes[i] = inQuotes[i - 1] ^ (quoteCounts.get(i - 1) % 2 == 1);
+            }
+
+            List<Long> starts = invokeAll(chunkCnt, i -> i == 0
+                    ? 0 : findRowStart(channel, i * chunkSize, size, inQuotes[i]));
+            List<List<String[]>> chunks = invokeAll(chunkCnt, i -> {
+                long end = i + 1 < chunkCnt ? starts.get(i + 1) : size;
+                return parseChunk(channel, Math.min(starts.get(i), end), end);
+            });
+
+            String[] header = null;
+            int colCnt = -1;
+            ChunkedStorage table = new ChunkedStorage(0);
+            for (int i = 0; i < chunks.size(); i++) {
+                for (String[] row : chunks.get(i)) {
+                    if (hasHeader && header == null) {
+                        header = row;
+                        colCnt = header.length;
+                        continue;
+                    }
+                    if (colCnt == -1) {
+                        colCnt = row.length;
+                    } else if (colCnt != row.length) {
+                        throw new IncorrectInputException("Rows have different number of columns");
+                    }
+                    table.appendRow(row);
+                }
+                // rows are kept by the storage only
+                chunks.set(i, null);
+            }
+            return new CsvTable(header, table);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE) {
+            throw new IOException("Can't split file into chunks smaller than 2 GB at row boundaries");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    private static int countQuotes(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer buffer = map(channel, from, to);
+        int count = 0;
+        for (int i = 0, n = buffer.limit(); i < n; i++) {
+            if (buffer.get(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns position right after the first line separator at or after {@code from} which is not inside quotes
+     */
+    private static long findRowStart(FileChannel channel, long from, long size, boolean inQuotes)
+            throws IOException {
+        long pos = from;
+        while (pos < size) {
+            int n = (int) Math.min(MIN_CHUNK_SIZE, size - pos);
+            // bytes after the window complete a separator that starts at its end
+            MappedByteBuffer buffer = map(channel, pos, Math.min(size, pos + n + 2));
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '"') {
+                    inQuotes = !inQuotes;
+                } else if (!inQuotes) {
+                    int separator = Utf8Lexer.lineSeparatorLength(buffer, i, buffer.limit());
+                    if (separator > 0) {
+                        return pos + i + separator;
+                    }
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private List<String[]> parseChunk(FileChannel channel, long from, long to) throws IOException {
+        Utf8Lexer lexer = new Utf8Lexer(map(channel, from, to), delimiter);
+        ArrayList<String[]> rows = new ArrayList<>();
+        while (lexer.nextRow()) {
+            rows.add(lexer.getRow());
+        }
+        return rows;
+    }
+
+    private interface ChunkTask<T> {
+        T run(int chunk) throws IOException;
+    }
+
+    private <T> List<T> invokeAll(int chunkCnt, ChunkTask<T> task) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(chunkCnt);
+        for (int i = 0; i < chunkCnt; i++) {
+            int chunk = i;
+            futures.add(pool.submit((Callable<T>) () -> task.run(chunk)));
+        }
+        List<T> results = new ArrayList<>(chunkCnt);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parsing was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+}
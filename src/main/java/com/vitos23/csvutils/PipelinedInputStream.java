@@ -0,0 +1,205 @@
+package com.vitos23.csvutils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+/**
+ * <p>Reads a source stream on a separate producer thread, so that reading (e.g. decompression) overlaps with
+ * processing of already read bytes. The producer fills chunks from a fixed pool and passes them through a bounded
+ * queue; a chunk is returned to the pool when the consumer has read it, so the producer is at most a pool of
+ * chunks ahead and nothing is allocated after the start except an error.</p>
+ * <p>Errors of the source are rethrown by {@link #read(byte[], int, int)} after the bytes read before them.
+ * IOExceptions keep their type, other errors are unchecked.</p>
+ */
+class PipelinedInputStream extends InputStream {
+    static final int BUFFER_SIZE = 1 << 16;
+    static final int BUFFER_COUNT = 4;
+
+    private static final Chunk END = new Chunk(null, null);
+
+    private final InputStream source;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread producer;
+    private Chunk current;
+    private int pos;
+    private boolean closed;
+
+    PipelinedInputStream(InputStream source, int bufferSize, int bufferCount) {
+        this.source = source;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Chunk(new byte[bufferSize], null));
+        }
+        this.producer = new Thread(this::produce, "csv-input-pipeline");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Opens a file for reading. Gzip files and zip archives (the first entry is read) are recognized by their
+     * signature and decompressed on a producer thread, other files are read as is.
+     * @param file is a path to the file
+     * @return stream of file content
+     * @throws IOException if file can't be opened or a zip archive is empty
+     */
+    static InputStream open(Path file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        try {
+            in.mark(4);
+            int b0 = in.read();
+            int b1 = in.read();
+            int b2 = in.read();
+            int b3 = in.read();
+            in.reset();
+            if (b0 == 0x1f && b1 == 0x8b) {
+                return new PipelinedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE, BUFFER_COUNT);
+            }
+            if (b0 == 'P' && b1 == 'K' && b2 == 3 && b3 == 4) {
+                ZipInputStream zip = new ZipInputStream(in);
+                if (zip.getNextEntry() == null) {
+                    throw new IOException("Zip archive is empty: " + file);
+                }
+                return new PipelinedInputStream(zip, BUFFER_SIZE, BUFFER_COUNT);
+            }
+            return in;
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private void produce() {
+        try {
+            while (true) {
+                Chunk chunk = free.take();
+                byte[] buffer = chunk.buffer;
+                int length = 0;
+                Chunk last = END;
+                try {
+                    while (length < buffer.length) {
+                        int read = source.read(buffer, length, buffer.length - length);
+                        if (read < 0) {
+                            break;
+                        }
+                        length += read;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // bytes read before the error are passed first
+                    last = new Chunk(null, e);
+                }
+                if (length > 0) {
+                    chunk.length = length;
+                    filled.put(chunk);
+                }
+                if (last != END || length < buffer.length) {
+                    filled.put(last);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // the stream is closed
+        }
+    }
+
+    /**
+     * Makes the current chunk have unread bytes
+     * @return false if the source is exhausted
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        if (current != null && pos < current.length) {
+            return true;
+        }
+        if (current == END) {
+            return false;
+        }
+        if (current != null && current.buffer != null) {
+            free.add(current);
+        }
+        try {
+            current = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Reading was interrupted", e);
+        }
+        pos = 0;
+        if (current.error != null) {
+            Exception error = current.error;
+            current = END;
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            throw (RuntimeException) error;
+        }
+        return current != END;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextChunk() ? current.buffer[pos++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - pos);
+        System.arraycopy(current.buffer, pos, b, off, count);
+        pos += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current == null || current == END ? 0 : current.length - pos;
+    }
+
+    /**
+     * Stops the producer thread and closes the source
+     * @throws IOException if source can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        source.close();
+    }
+
+    /**
+     * Buffer of the pool with bytes read by the producer, the end of source or an error of the source.
+     * Length is set by the producer before the chunk is queued and read by the consumer after it is taken
+     */
+    private static final class Chunk {
+        private final byte[] buffer;
+        private final Exception error;
+        private int length = -1;
+
+        Chunk(byte[] buffer, Exception error) {
+            this.buffer = buffer;
+            this.error = error;
+        }
+    }
+}
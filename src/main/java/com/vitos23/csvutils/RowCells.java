@@ -0,0 +1,11 @@
+package com.vitos23.csvutils;
+
+/**
+ * Cells of one row that {@link RowMapper} reads objects from: a row of a lexer, an array or a row of a table
+ */
+interface RowCells {
+    /**
+     * Returns value of the cell. The result may be valid only until the next call
+     */
+    CharSequence cell(int col);
+}
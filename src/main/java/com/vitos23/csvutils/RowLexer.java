@@ -0,0 +1,328 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.IncorrectInputException;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * <p>Common part of lexers that split csv source into rows and cells. Subclasses scan rows and report bounds of
+ * cells by {@link #addCell(int, int, boolean)}, this class applies filters and column selection to them,
+ * checks widths of rows and counts scanned rows and cells.</p>
+ * <p>Bounds of recorded cells of the current row are positions in the source representation of the subclass.</p>
+ */
+abstract class RowLexer implements RowCells {
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    boolean[] escaped = new boolean[16];
+    int cellCount;
+    long quotedCells;
+
+    private int sourceCellCount;
+    private int[] targets;
+    private int projectionWidth;
+    private boolean checkWidth;
+    private int width = -1;
+    private Predicate<CharSequence>[] filters;
+    private boolean rejected;
+    private CsvErrorReport errorReport;
+    private String sourceName;
+    private long rowBase;
+    private long positionBase;
+    private boolean malformed;
+    private long rowTotal;
+    private long rejectedRows;
+    private long malformedRows;
+    private long cellTotal;
+    private int maxRowWidth;
+
+    /**
+     * Scans the next row reporting its cells
+     * @return false if source is exhausted
+     */
+    abstract boolean scanRow();
+
+    /**
+     * Returns the cell with given bounds for a filter. The result may be valid only until the filter returns
+     */
+    abstract CharSequence cellView(int start, int end, boolean hasEscapedQuotes);
+
+    /**
+     * Returns value of the cell of the current row with escaped quotes ("") replaced by single ones
+     */
+    abstract String getCell(int i);
+
+    /**
+     * Returns size of the source read so far in units of the source (characters or bytes)
+     */
+    abstract long getPosition();
+
+    /**
+     * Returns position of the first character or byte of the current row in the source
+     */
+    abstract long getRowPosition();
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > starts.length) {
+            capacity = Math.max(capacity, starts.length * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+        }
+    }
+
+    final void addCell(int start, int end, boolean hasEscapedQuotes) {
+        int index = sourceCellCount++;
+        if (rejected) {
+            return;
+        }
+        if (filters != null && index < filters.length && filters[index] != null
+                && !filters[index].test(cellView(start, end, hasEscapedQuotes))) {
+            rejected = true;
+            return;
+        }
+        if (targets != null) {
+            if (index >= targets.length || targets[index] < 0) {
+                return;
+            }
+            index = targets[index];
+        }
+        ensureCapacity(index + 1);
+        starts[index] = start;
+        ends[index] = end;
+        escaped[index] = hasEscapedQuotes;
+        cellCount++;
+    }
+
+    /**
+     * Makes the lexer keep only given cells of each row in given order. Other cells are scanned but not recorded.
+     * @param columns are indices of cells to keep
+     * @throws IllegalArgumentException if some index is negative or repeated
+     */
+    final void setProjection(int[] columns) {
+        int max = -1;
+        for (int col : columns) {
+            if (col < 0) {
+                throw new IllegalArgumentException("Column index can't be negative: " + col);
+            }
+            max = Math.max(max, col);
+        }
+        targets = new int[max + 1];
+        Arrays.fill(targets, -1);
+        for (int i = 0; i < columns.length; i++) {
+            if (targets[columns[i]] != -1) {
+                throw new IllegalArgumentException("Column " + columns[i] + " is selected twice");
+            }
+            targets[columns[i]] = i;
+        }
+        projectionWidth = columns.length;
+        ensureCapacity(columns.length);
+    }
+
+    /**
+     * Makes the lexer skip rows that don't match filters. A filter is tested as soon as its cell is scanned,
+     * remaining cells of a rejected row are scanned but not recorded or tested. Filters get a view of the cell
+     * that is valid only during the test.
+     * @param filters are filters of cells by their indices in a row, null if a cell isn't filtered
+     */
+    final void setFilters(Predicate<CharSequence>[] filters) {
+        this.filters = filters;
+    }
+
+    /**
+     * Makes the lexer skip incorrect rows and record them in the report instead of throwing
+     * {@link IncorrectInputException}
+     * @param errorReport is a report of incorrect rows or null if they should be thrown
+     */
+    final void setErrorReport(CsvErrorReport errorReport) {
+        this.errorReport = errorReport;
+    }
+
+    /**
+     * Sets name of the source recorded in errors of incorrect rows, e.g. path of the parsed file
+     * @param sourceName is a name of the source or null
+     */
+    final void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+    }
+
+    /**
+     * Makes errors of incorrect rows continue numbering of rows and positions of the source parsed before,
+     * when the source is parsed in parts
+     * @param rows is a number of rows before the part
+     * @param position is a position of the part in the source
+     */
+    final void setErrorBase(long rows, long position) {
+        this.rowBase = rows;
+        this.positionBase = position;
+    }
+
+    /**
+     * Reports that the current row is incorrect. Without error report {@link IncorrectInputException} is thrown,
+     * otherwise the error is recorded and the row is skipped by {@link #nextRow()}. The subclass should then
+     * skip the rest of the row.
+     * @param reason is a description of the error
+     */
+    final void malformed(String reason) {
+        if (errorReport == null) {
+            throw new IncorrectInputException(reason);
+        }
+        if (!malformed) {
+            malformed = true;
+            errorReport.add(sourceName, rowBase + rowTotal + 1, positionBase + getRowPosition(), reason);
+        }
+    }
+
+    /**
+     * Makes the lexer check that all rows have the same number of cells as the first one
+     */
+    final void setCheckWidth(boolean checkWidth) {
+        this.checkWidth = checkWidth;
+    }
+
+    /**
+     * Sets the number of cells rows must have, -1 if it should be taken from the first row
+     */
+    final void setWidth(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Returns the number of cells rows must have or -1 if no row is read yet
+     */
+    final int getWidth() {
+        return width;
+    }
+
+    private void checkWidth() {
+        if (width == -1) {
+            width = sourceCellCount;
+        } else if (width != sourceCellCount) {
+            malformed("Rows have different number of columns");
+            return;
+        }
+        if (filters != null && filters.length > width) {
+            throw new IllegalArgumentException(String.format(
+                    "Column %d is filtered but table has %d columns", filters.length - 1, width
+            ));
+        }
+        if (targets != null && !rejected && cellCount != projectionWidth) {
+            throw new IllegalArgumentException(String.format(
+                    "Column %d is selected but table has %d columns", targets.length - 1, width
+            ));
+        }
+    }
+
+    /**
+     * Reads the next row that matches filters. An empty line is a row without cells.
+     * Incorrect rows are skipped if the lexer has an error report.
+     * @return false if source is exhausted
+     * @throws IncorrectInputException if the row doesn't follow RFC 4180 or has wrong number of cells
+     */
+    final boolean nextRow() {
+        do {
+            cellCount = 0;
+            sourceCellCount = 0;
+            rejected = false;
+            malformed = false;
+            if (!scanRow()) {
+                return false;
+            }
+            if (checkWidth && !malformed) {
+                checkWidth();
+            }
+            rowTotal++;
+            cellTotal += sourceCellCount;
+            maxRowWidth = Math.max(maxRowWidth, sourceCellCount);
+            if (malformed) {
+                malformedRows++;
+            } else if (rejected) {
+                rejectedRows++;
+            }
+        } while (rejected || malformed);
+        return true;
+    }
+
+    /**
+     * Returns number of rows read so far including rejected ones
+     */
+    final long getRowTotal() {
+        return rowTotal;
+    }
+
+    /**
+     * Returns number of rows rejected by filters so far
+     */
+    final long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * Returns number of incorrect rows skipped so far
+     */
+    final long getMalformedRows() {
+        return malformedRows;
+    }
+
+    /**
+     * Returns number of cells read so far including the ones that aren't recorded
+     */
+    final long getCellTotal() {
+        return cellTotal;
+    }
+
+    /**
+     * Returns number of quoted cells read so far
+     */
+    final long getQuotedCells() {
+        return quotedCells;
+    }
+
+    /**
+     * Returns the maximum number of cells in a row read so far
+     */
+    final int getMaxRowWidth() {
+        return maxRowWidth;
+    }
+
+    /**
+     * Returns number of recorded cells in the current row
+     */
+    final int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Returns number of cells in the current row including the ones that aren't recorded
+     */
+    final int getSourceCellCount() {
+        return sourceCellCount;
+    }
+
+    /**
+     * Returns true if value of the cell contains escaped quotes ("") that should be replaced by single ones
+     */
+    final boolean hasEscapedQuotes(int i) {
+        return escaped[i];
+    }
+
+    /**
+     * Returns value of the cell of the current row without creating a string if possible.
+     * The result is valid only until the next call
+     */
+    @Override
+    public final CharSequence cell(int i) {
+        return cellView(starts[i], ends[i], escaped[i]);
+    }
+
+    /**
+     * Returns values of all cells of the current row
+     */
+    final String[] getRow() {
+        String[] row = new String[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            row[i] = getCell(i);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,354 @@
+package com.vitos23.csvutils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>Maps rows of csv table into objects of a record or a class. Columns are bound to record components or fields
+ * by header names once, when the mapper is created: exact names are preferred, otherwise names are compared
+ * ignoring case. Every record component must have a column. A class must have a constructor without parameters,
+ * its non-static, non-final, non-transient fields that have a column are set and other fields are left as is.</p>
+ * <p>For every component or field a method handle is composed that reads the cell and converts it, so no
+ * reflection is used and primitives aren't boxed while mapping. Supported types are String, primitives and their
+ * wrappers, BigDecimal, BigInteger, LocalDate, LocalTime, LocalDateTime and enums (by constant name).
+ * An empty cell is mapped to null for reference types except String and to zero or false for primitives.
+ * A String is empty for an empty cell and null for a null cell.
+ * Conversion errors such as {@link NumberFormatException} are thrown as is.</p>
+ * <pre>{@code
+ * record Trade(String id, int qty, double price, Side side) {}
+ * RowMapper<Trade> mapper = RowMapper.of(Trade.class, table);
+ * List<Trade> trades = table.toObjects(Trade.class);
+ * }</pre>
+ * @param <T> is a type of objects
+ */
+public final class RowMapper<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, MethodHandle> CONVERTERS = new HashMap<>();
+    private static final MethodHandle CELL;
+    private static final MethodHandle IS_EMPTY;
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle TO_STRING;
+    private static final MethodHandle TO_ENUM;
+
+    static {
+        try {
+            CELL = LOOKUP.findVirtual(RowCells.class, "cell", MethodType.methodType(CharSequence.class, int.class));
+            IS_EMPTY = LOOKUP.findStatic(RowMapper.class, "isEmpty",
+                    MethodType.methodType(boolean.class, CharSequence.class));
+            IS_NULL = LOOKUP.findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class))
+                    .asType(MethodType.methodType(boolean.class, CharSequence.class));
+            TO_STRING = LOOKUP.findVirtual(Object.class, "toString", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, CharSequence.class));
+            TO_ENUM = LOOKUP.findStatic(RowMapper.class, "toEnum",
+                    MethodType.methodType(Enum.class, Class.class, CharSequence.class));
+            for (Class<?> type : new Class<?>[]{int.class, long.class, double.class, float.class, boolean.class,
+                    short.class, byte.class, char.class}) {
+                String name = "to" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+                CONVERTERS.put(type, LOOKUP.findStatic(RowMapper.class, name,
+                        MethodType.methodType(type, CharSequence.class)));
+            }
+            CONVERTERS.put(String.class, TO_STRING);
+            CONVERTERS.put(BigDecimal.class, MethodHandles.filterArguments(LOOKUP.findConstructor(
+                    BigDecimal.class, MethodType.methodType(void.class, String.class)), 0, TO_STRING));
+            CONVERTERS.put(BigInteger.class, MethodHandles.filterArguments(LOOKUP.findConstructor(
+                    BigInteger.class, MethodType.methodType(void.class, String.class)), 0, TO_STRING));
+            for (Class<?> type : new Class<?>[]{LocalDate.class, LocalTime.class, LocalDateTime.class}) {
+                CONVERTERS.put(type, LOOKUP.findStatic(type, "parse", MethodType.methodType(type, CharSequence.class)));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<T> type;
+    private final MethodHandle factory;
+    private final MethodHandle[] setters;
+
+    private RowMapper(Class<T> type, MethodHandle factory, MethodHandle[] setters) {
+        this.type = type;
+        this.factory = factory;
+        this.setters = setters;
+    }
+
+    /**
+     * Creates a mapper of rows of a table with given header
+     * @param type is a record or a class with a constructor without parameters
+     * @param header is a header of the table
+     * @param <T> is a type of objects
+     * @return mapper of rows
+     * @throws IllegalArgumentException if a record component doesn't have a column, a class doesn't have fields with
+     * columns, a type of component or field isn't supported or the type can't be accessed
+     */
+    public static <T> RowMapper<T> of(Class<T> type, String[] header) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+            Object[] components = recordComponents(type);
+            if (components != null) {
+                return ofRecord(type, header, lookup, components);
+            }
+            return ofClass(type, header, lookup);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can't map rows into " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a mapper of rows of the table
+     * @param type is a record or a class with a constructor without parameters
+     * @param table is a table with header
+     * @param <T> is a type of objects
+     * @return mapper of rows
+     * @throws IllegalArgumentException if table doesn't have header, see also {@link #of(Class, String[])}
+     */
+    public static <T> RowMapper<T> of(Class<T> type, CsvTable table) {
+        if (!table.hasHeader()) {
+            throw new IllegalArgumentException("Rows can be mapped into objects only in a table with header");
+        }
+        String[] header = new String[table.getWidth()];
+        for (int col = 0; col < header.length; col++) {
+            header[col] = table.getColumnHeader(col);
+        }
+        return of(type, header);
+    }
+
+    /**
+     * Returns components of a record or null if the type isn't a record. Records are found by reflection,
+     * as the library is compiled for Java versions without records
+     */
+    private static Object[] recordComponents(Class<?> type) throws ReflectiveOperationException {
+        Method isRecord;
+        try {
+            isRecord = Class.class.getMethod("isRecord");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (!(Boolean) isRecord.invoke(type)) {
+            return null;
+        }
+        return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+    }
+
+    private static <T> RowMapper<T> ofRecord(Class<T> type, String[] header, MethodHandles.Lookup lookup,
+                                             Object[] components) throws ReflectiveOperationException {
+        Class<?>[] types = new Class<?>[components.length];
+        MethodHandle[] readers = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Method getName = components[i].getClass().getMethod("getName");
+            Method getType = components[i].getClass().getMethod("getType");
+            String name = (String) getName.invoke(components[i]);
+            types[i] = (Class<?>) getType.invoke(components[i]);
+            int col = columnOf(header, name);
+            if (col < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "There is no column for component %s of %s", name, type.getName()
+                ));
+            }
+            readers[i] = reader(types[i], col, name);
+        }
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, types));
+        MethodHandle factory = MethodHandles.filterArguments(constructor, 0, readers);
+        // every argument is read from the same cells
+        factory = MethodHandles.permuteArguments(
+                factory.asType(factory.type().changeReturnType(Object.class)),
+                MethodType.methodType(Object.class, RowCells.class),
+                new int[components.length]
+        );
+        return new RowMapper<>(type, factory, null);
+    }
+
+    private static <T> RowMapper<T> ofClass(Class<T> type, String[] header, MethodHandles.Lookup lookup)
+            throws ReflectiveOperationException {
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        List<MethodHandle> setters = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            MethodHandles.Lookup classLookup = c == type ? lookup : MethodHandles.privateLookupIn(c, LOOKUP);
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)
+                        || field.isSynthetic()) {
+                    continue;
+                }
+                int col = columnOf(header, field.getName());
+                if (col < 0) {
+                    continue;
+                }
+                MethodHandle setter = classLookup.unreflectSetter(field);
+                setter = setter.asType(MethodType.methodType(void.class, Object.class, field.getType()));
+                setters.add(MethodHandles.filterArguments(setter, 1, reader(field.getType(), col, field.getName())));
+            }
+        }
+        if (setters.isEmpty()) {
+            throw new IllegalArgumentException("There are no columns for fields of " + type.getName());
+        }
+        MethodHandle factory = constructor.asType(MethodType.methodType(Object.class));
+        return new RowMapper<>(type, factory, setters.toArray(new MethodHandle[0]));
+    }
+
+    /**
+     * Returns index of the column with given name, exact names are preferred to names that differ in case
+     */
+    private static int columnOf(String[] header, String name) {
+        int res = -1;
+        for (int col = header.length - 1; col >= 0; col--) {
+            if (name.equals(header[col])) {
+                return col;
+            }
+            if (name.equalsIgnoreCase(header[col])) {
+                res = col;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns a handle that reads the cell and converts it into given type: (RowCells) -> type
+     */
+    private static MethodHandle reader(Class<?> type, int col, String name) {
+        MethodHandle converter;
+        if (type.isEnum()) {
+            converter = MethodHandles.insertArguments(TO_ENUM, 0, type);
+        } else {
+            converter = CONVERTERS.get(type.isPrimitive() ? type : primitiveOf(type));
+            if (converter == null) {
+                converter = CONVERTERS.get(type);
+            }
+        }
+        if (converter == null) {
+            throw new IllegalArgumentException("Type " + type.getName() + " of " + name + " isn't supported");
+        }
+        converter = converter.asType(MethodType.methodType(type, CharSequence.class));
+        MethodHandle empty = MethodHandles.empty(MethodType.methodType(type, CharSequence.class));
+        converter = MethodHandles.guardWithTest(type == String.class ? IS_NULL : IS_EMPTY, empty, converter);
+        return MethodHandles.filterReturnValue(MethodHandles.insertArguments(CELL, 1, col), converter);
+    }
+
+    private static Class<?> primitiveOf(Class<?> wrapper) {
+        for (Class<?> primitive : CONVERTERS.keySet()) {
+            if (primitive.isPrimitive() && MethodType.methodType(primitive).wrap().returnType() == wrapper) {
+                return primitive;
+            }
+        }
+        return wrapper;
+    }
+
+    /**
+     * Maps cells of the row into an object
+     * @param row are values of cells in order of the header
+     * @return mapped object
+     * @throws IndexOutOfBoundsException if the row is shorter than a bound column
+     */
+    public T map(String[] row) {
+        return map((RowCells) col -> row[col]);
+    }
+
+    /**
+     * Maps all rows of the table, e.g. the one the mapper was created for
+     * @param table is a table with the same columns as the header of the mapper
+     * @return list of mapped objects
+     */
+    public List<T> mapAll(CsvTable table) {
+        List<T> res = new ArrayList<>(table.getHeight());
+        int[] row = new int[1];
+        RowCells cells = col -> table.getCell(row[0], col);
+        for (; row[0] < table.getHeight(); row[0]++) {
+            res.add(map(cells));
+        }
+        return res;
+    }
+
+    T map(RowCells cells) {
+        try {
+            if (setters == null) {
+                return type.cast((Object) factory.invokeExact(cells));
+            }
+            Object res = (Object) factory.invokeExact();
+            for (MethodHandle setter : setters) {
+                setter.invokeExact(res, cells);
+            }
+            return type.cast(res);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isEmpty(CharSequence s) {
+        return s == null || s.length() == 0;
+    }
+
+    private static int toInt(CharSequence s) {
+        return Integer.parseInt(s, 0, s.length(), 10);
+    }
+
+    private static long toLong(CharSequence s) {
+        return Long.parseLong(s, 0, s.length(), 10);
+    }
+
+    private static double toDouble(CharSequence s) {
+        return Double.parseDouble(s.toString());
+    }
+
+    private static float toFloat(CharSequence s) {
+        return Float.parseFloat(s.toString());
+    }
+
+    private static short toShort(CharSequence s) {
+        int val = toInt(s);
+        if (val != (short) val) {
+            throw new NumberFormatException("Value out of range for short: " + s);
+        }
+        return (short) val;
+    }
+
+    private static byte toByte(CharSequence s) {
+        int val = toInt(s);
+        if (val != (byte) val) {
+            throw new NumberFormatException("Value out of range for byte: " + s);
+        }
+        return (byte) val;
+    }
+
+    private static boolean toBoolean(CharSequence s) {
+        if (s.length() != 4) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (Character.toLowerCase(s.charAt(i)) != "true".charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toChar(CharSequence s) {
+        if (s.length() != 1) {
+            throw new IllegalArgumentException("Expected a single character but found '" + s + "'");
+        }
+        return s.charAt(0);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Enum<?> toEnum(Class type, CharSequence s) {
+        return Enum.valueOf(type, s.toString());
+    }
+
+    @Override
+    public String toString() {
+        return "RowMapper{type=" + type.getName() + "}";
+    }
+}
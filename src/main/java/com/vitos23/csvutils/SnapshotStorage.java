@@ -0,0 +1,271 @@
+package com.vitos23.csvutils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * <p>Stores cells in a memory-mapped snapshot file. Nothing is read when the file is opened except the header,
+ * strings are decoded from the mapping when cells are requested. Values set after opening are kept in a map.</p>
+ * <p>Snapshot layout, all numbers are big-endian:</p>
+ * <ul>
+ *     <li>magic "CSVS", version, width, height, number of header names (-1 if table has no header), padding;</li>
+ *     <li>header names, each as int length (-1 for null) and UTF-8 bytes, padded to 8 bytes;</li>
+ *     <li>index of cells column by column, height + 1 longs per column: positions of cells in the file and
+ *     the end of the last cell. Position of a null cell has {@link #NULL} bit set;</li>
+ *     <li>string heap with UTF-8 bytes of cells in the same order.</li>
+ * </ul>
+ * <p>The file is mapped in segments of 1 GB, so snapshots aren't limited by 2 GB size of a single mapping.</p>
+ */
+class SnapshotStorage implements TableStorage {
+    private static final int MAGIC = 0x43535653;
+    private static final int VERSION = 2;
+    private static final int FIXED_HEADER_SIZE = 24;
+    private static final long NULL = 1L << 62;
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final MappedByteBuffer[] segments;
+    private final long indexStart;
+    private final int width;
+    private final int height;
+    private HashMap<Long, String> overrides;
+
+    private SnapshotStorage(MappedByteBuffer[] segments, long indexStart, int width, int height) {
+        this.segments = segments;
+        this.indexStart = indexStart;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    private long cellIndex(int row, int col) {
+        return (long) col * (height + 1) + row;
+    }
+
+    private long getLong(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].getLong((int) (pos & SEGMENT_MASK));
+    }
+
+    private int getInt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].getInt((int) (pos & SEGMENT_MASK));
+    }
+
+    private String getString(long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        int segment = (int) (start >>> SEGMENT_BITS);
+        if (segment == (int) ((end - 1) >>> SEGMENT_BITS)) {
+            // absolute bulk get isn't available before Java 13, a duplicate keeps the shared position intact
+            ByteBuffer buffer = segments[segment].duplicate();
+            buffer.position((int) (start & SEGMENT_MASK));
+            buffer.get(bytes);
+        } else {
+            for (int i = 0; i < bytes.length; i++) {
+                long pos = start + i;
+                bytes[i] = segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & SEGMENT_MASK));
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String get(int row, int col) {
+        long index = cellIndex(row, col);
+        if (overrides != null && overrides.containsKey(index)) {
+            return overrides.get(index);
+        }
+        long start = getLong(indexStart + index * Long.BYTES);
+        if ((start & NULL) != 0) {
+            return null;
+        }
+        long end = getLong(indexStart + (index + 1) * Long.BYTES) & ~NULL;
+        return getString(start, end);
+    }
+
+    @Override
+    public void set(int row, int col, String val) {
+        if (overrides == null) {
+            overrides = new HashMap<>();
+        }
+        overrides.put(cellIndex(row, col), val);
+    }
+
+    @Override
+    public long estimateBytes() {
+        long res = MemoryEstimate.array(segments.length, MemoryEstimate.REFERENCE)
+                + segments.length * (long) MemoryEstimate.OBJECT_HEADER * 4;
+        if (overrides != null) {
+            for (String val : overrides.values()) {
+                res += 4 * MemoryEstimate.OBJECT_HEADER + MemoryEstimate.REFERENCE + MemoryEstimate.string(val);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Writes a snapshot of the table. Cells are written column by column through fixed-size buffers,
+     * so the table isn't copied in memory.
+     */
+    static void write(String[] header, TableStorage table, Path file) throws IOException {
+        int width = table.getWidth();
+        int height = table.getHeight();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.allocate(FIXED_HEADER_SIZE);
+            head.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height)
+                    .putInt(header == null ? -1 : header.length).putInt(0);
+            PositionalWriter out = new PositionalWriter(channel, 0);
+            out.write(head.array(), 0, head.capacity());
+            if (header != null) {
+                for (String name : header) {
+                    out.writeString(name);
+                }
+                out.pad();
+            }
+            out.flush();
+            long indexStart = out.getPosition();
+            long heapStart = indexStart + (long) width * (height + 1) * Long.BYTES;
+            PositionalWriter index = new PositionalWriter(channel, indexStart);
+            PositionalWriter heap = new PositionalWriter(channel, heapStart);
+            for (int col = 0; col < width; col++) {
+                for (int row = 0; row < height; row++) {
+                    String val = table.get(row, col);
+                    index.writeLong(val == null ? heap.getPosition() | NULL : heap.getPosition());
+                    if (val != null) {
+                        byte[] bytes = val.getBytes(StandardCharsets.UTF_8);
+                        heap.write(bytes, 0, bytes.length);
+                    }
+                }
+                index.writeLong(heap.getPosition());
+            }
+            index.flush();
+            heap.flush();
+        }
+    }
+
+    /**
+     * Maps a snapshot file
+     * @return table backed by the mapping
+     * @throws IOException if file can't be read or isn't a snapshot
+     */
+    static CsvTable open(Path file) throws IOException {
+        MappedByteBuffer[] segments;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FIXED_HEADER_SIZE) {
+                throw new IOException("File is not a csv table snapshot: " + file);
+            }
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                long length = Math.min(size - start, SEGMENT_MASK + 1);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        }
+        ByteBuffer head = segments[0];
+        if (head.getInt(0) != MAGIC) {
+            throw new IOException("File is not a csv table snapshot: " + file);
+        }
+        if (head.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + head.getInt(4) + ": " + file);
+        }
+        int width = head.getInt(8);
+        int height = head.getInt(12);
+        SnapshotStorage headerReader = new SnapshotStorage(segments, 0, width, height);
+        String[] header = null;
+        long pos = FIXED_HEADER_SIZE;
+        int headerLength = head.getInt(16);
+        if (headerLength >= 0) {
+            header = new String[headerLength];
+            for (int col = 0; col < headerLength; col++) {
+                int length = headerReader.getInt(pos);
+                pos += Integer.BYTES;
+                if (length >= 0) {
+                    header[col] = headerReader.getString(pos, pos + length);
+                    pos += length;
+                }
+            }
+            pos = MemoryEstimate.align(pos);
+        }
+        return new CsvTable(header, new SnapshotStorage(segments, pos, width, height));
+    }
+
+    /**
+     * Writes bytes at consecutive positions of a channel through a buffer
+     */
+    private static class PositionalWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private long position;
+
+        PositionalWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long getPosition() {
+            return position + buffer.position();
+        }
+
+        void writeLong(long val) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(val);
+        }
+
+        void writeString(String val) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            if (val == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = val.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(byte[] bytes, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int chunk = Math.min(len, buffer.remaining());
+                buffer.put(bytes, off, chunk);
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        void pad() throws IOException {
+            while (getPosition() % Long.BYTES != 0) {
+                write(new byte[1], 0, 1);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.vitos23.csvutils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <p>Stores cells as bounds in the parsed source string. Bounds of every cell are packed into a single long:
+ * start is kept in bits 32-62, end in bits 0-31 and the highest bit is set if the value contains
+ * escaped quotes ("") that should be replaced by single ones.</p>
+ * <p>Strings are created only when cells are requested. Values set after parsing are kept in a separate map.</p>
+ */
+class SourceStorage implements TableStorage {
+    private static final long ESCAPED = Long.MIN_VALUE;
+    private static final long OVERRIDDEN = -1;
+
+    private final String source;
+    private final long[] cells;
+    private final int width;
+    private final int height;
+    private HashMap<Integer, String> overrides;
+
+    private SourceStorage(String source, long[] cells, int width, int height) {
+        this.source = source;
+        this.cells = cells;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String get(int row, int col) {
+        int index = row * width + col;
+        long cell = cells[index];
+        if (cell == OVERRIDDEN) {
+            return overrides.get(index);
+        }
+        int start = (int) (cell >>> 32) & Integer.MAX_VALUE;
+        int end = (int) cell;
+        if ((cell & ESCAPED) == 0) {
+            return source.substring(start, end);
+        }
+        StringBuilder res = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            res.append(c);
+            if (c == '"') {
+                i++;
+            }
+        }
+        return res.toString();
+    }
+
+    @Override
+    public void set(int row, int col, String val) {
+        int index = row * width + col;
+        if (overrides == null) {
+            overrides = new HashMap<>();
+        }
+        overrides.put(index, val);
+        cells[index] = OVERRIDDEN;
+    }
+
+    @Override
+    public long estimateBytes() {
+        long res = MemoryEstimate.string(source) + MemoryEstimate.array(cells.length, Long.BYTES);
+        if (overrides != null) {
+            for (String val : overrides.values()) {
+                res += 3 * MemoryEstimate.OBJECT_HEADER + MemoryEstimate.REFERENCE + MemoryEstimate.string(val);
+            }
+        }
+        return res;
+    }
+
+    static class Builder implements TableStorage.Builder<CsvLexer> {
+        private final String source;
+        private long[] cells = new long[64];
+        private int size;
+        private int width = -1;
+        private int height;
+
+        Builder(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public void addRow(CsvLexer lexer) {
+            int cellCount = lexer.getCellCount();
+            width = cellCount;
+            if (cells.length - size < cellCount) {
+                long capacity = Math.max((long) cells.length * 2, (long) size + cellCount);
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Table has too many cells to be stored as bounds");
+                }
+                cells = Arrays.copyOf(cells, (int) capacity);
+            }
+            for (int i = 0; i < cellCount; i++) {
+                long cell = lexer.getCellStart(i) << 32 | lexer.getCellEnd(i);
+                cells[size++] = lexer.hasEscapedQuotes(i) ? cell | ESCAPED : cell;
+            }
+            height++;
+        }
+
+        @Override
+        public TableStorage build() {
+            return new SourceStorage(source, Arrays.copyOf(cells, size), Math.max(width, 0), height);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.vitos23.csvutils;
+
+/**
+ * Storage of cells of CsvTable. Indices are checked by the table before they are passed to storage.
+ */
+interface TableStorage {
+    int getWidth();
+
+    int getHeight();
+
+    String get(int row, int col);
+
+    void set(int row, int col, String val);
+
+    /**
+     * Returns estimated number of bytes retained by the storage
+     */
+    long estimateBytes();
+
+    /**
+     * Returns true if the cell is null or empty
+     */
+    default boolean isEmpty(int row, int col) {
+        String val = get(row, col);
+        return val == null || val.isEmpty();
+    }
+
+    default int getInt(int row, int col) {
+        return Integer.parseInt(get(row, col));
+    }
+
+    default long getLong(int row, int col) {
+        return Long.parseLong(get(row, col));
+    }
+
+    /**
+     * Returns true if the non-empty cell can be read by {@link #getLong(int, int)}. Doesn't throw exceptions
+     */
+    default boolean isLong(int row, int col) {
+        return Column.isLong(get(row, col));
+    }
+
+    default double getDouble(int row, int col) {
+        return Double.parseDouble(get(row, col));
+    }
+
+    default boolean getBoolean(int row, int col) {
+        return Boolean.parseBoolean(get(row, col));
+    }
+
+    /**
+     * Collects rows scanned by a lexer into a storage
+     * @param <L> is a type of lexers the builder can read rows from
+     */
+    interface Builder<L extends RowLexer> {
+        /**
+         * Adds the current row of the lexer
+         */
+        void addRow(L lexer);
+
+        TableStorage build();
+    }
+}
@@ -0,0 +1,299 @@
+package com.vitos23.csvutils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Splits UTF-8 encoded csv source into rows and cells without decoding it. Quotes, ASCII line separators and
+ * bytes of ASCII delimiters never occur inside multibyte UTF-8 sequences, so they are found by a lookup table
+ * of byte classes. Lead bytes of the multibyte line separators (U+0085, U+2028, U+2029) are classified as
+ * possible line ends and checked together with their continuation bytes.</p>
+ * <p>Cells are kept as byte bounds in the source and decoded only when they are requested.</p>
+ */
+final class Utf8Lexer extends RowLexer {
+    private static final byte ORDINARY = 0;
+    private static final byte QUOTE = 1;
+    private static final byte DELIMITER = 2;
+    private static final byte LINE_END = 3;
+
+    private final ByteBuffer source;
+    private final byte[] classes = new byte[256];
+    private final byte[] delimiter;
+    private final int start;
+    private final int limit;
+    private int pos;
+    private int rowStart;
+
+    Utf8Lexer(ByteBuffer source, String delimiter) {
+        if (delimiter.isEmpty()) {
+            throw new IllegalArgumentException("Delimiter can't be empty");
+        }
+        if (delimiter.charAt(0) == '"' || CsvLexer.isLineSeparator(delimiter.charAt(0))) {
+            throw new IllegalArgumentException("Delimiter can't start with a quote or line separator");
+        }
+        this.source = source;
+        this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+        this.start = source.position();
+        this.limit = source.limit();
+        this.pos = start;
+        classes[this.delimiter[0] & 0xff] = DELIMITER;
+        classes['"'] = QUOTE;
+        classes['\n'] = LINE_END;
+        classes['\r'] = LINE_END;
+        classes[0x0b] = LINE_END;
+        classes[0x0c] = LINE_END;
+        classes[0xc2] = LINE_END;
+        classes[0xe2] = LINE_END;
+    }
+
+    private int lineSeparatorLength(int p) {
+        return lineSeparatorLength(source, p, limit);
+    }
+
+    /**
+     * Returns length of the line separator at the position or 0 if there is no line separator.
+     * Separators are LF, CR, CRLF, VT, FF, U+0085, U+2028 and U+2029
+     * @param limit is the end of bytes the separator can take
+     */
+    static int lineSeparatorLength(ByteBuffer source, int p, int limit) {
+        switch (source.get(p)) {
+            case '\n':
+            case 0x0b:
+            case 0x0c:
+                return 1;
+            case '\r':
+                return p + 1 < limit && source.get(p + 1) == '\n' ? 2 : 1;
+            case (byte) 0xc2:
+                return p + 1 < limit && source.get(p + 1) == (byte) 0x85 ? 2 : 0;
+            case (byte) 0xe2:
+                return p + 2 < limit && source.get(p + 1) == (byte) 0x80
+                        && (source.get(p + 2) == (byte) 0xa8 || source.get(p + 2) == (byte) 0xa9) ? 3 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private boolean testDelimiter() {
+        if (limit - pos < delimiter.length) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length; i++) {
+            if (source.get(pos + i) != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    CharSequence cellView(int start, int end, boolean hasEscapedQuotes) {
+        return decode(source, start, end, hasEscapedQuotes);
+    }
+
+    @Override
+    boolean scanRow() {
+        rowStart = pos;
+        if (pos == limit) {
+            return false;
+        }
+        int separator = lineSeparatorLength(pos);
+        if (separator > 0) {
+            pos += separator;
+        } else {
+            boolean rowEnded = false;
+            while (!rowEnded) {
+                rowEnded = scanCell();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans one cell and the delimiter or line end following it
+     * @return true if the row has ended
+     */
+    private boolean scanCell() {
+        if (pos == limit) {
+            addCell(pos, pos, false);
+            return true;
+        }
+        return source.get(pos) == '"' ? scanQuoted() : scanUnquoted();
+    }
+
+    private boolean scanUnquoted() {
+        int cellStart = pos;
+        boolean hasEscapedQuotes = false;
+        while (true) {
+            int p = pos;
+            byte cls = ORDINARY;
+            while (p < limit) {
+                cls = classes[source.get(p) & 0xff];
+                if (cls != ORDINARY) {
+                    break;
+                }
+                p++;
+            }
+            pos = p;
+            if (p == limit) {
+                addCell(cellStart, pos, hasEscapedQuotes);
+                return true;
+            }
+            if (cls == QUOTE) {
+                if (pos + 1 == limit || source.get(pos + 1) != '"') {
+                    return skipMalformedRow("Missing opening quote", pos + 1);
+                }
+                hasEscapedQuotes = true;
+                pos += 2;
+                continue;
+            }
+            int separator = cls == LINE_END ? lineSeparatorLength(pos) : 0;
+            if (separator > 0) {
+                addCell(cellStart, pos, hasEscapedQuotes);
+                pos += separator;
+                return true;
+            }
+            if (testDelimiter()) {
+                addCell(cellStart, pos, hasEscapedQuotes);
+                pos += delimiter.length;
+                return false;
+            }
+            pos++;
+        }
+    }
+
+    private boolean scanQuoted() {
+        quotedCells++;
+        int cellStart = ++pos;
+        boolean hasEscapedQuotes = false;
+        while (true) {
+            int p = pos;
+            while (p < limit && source.get(p) != '"') {
+                p++;
+            }
+            pos = p;
+            if (p == limit) {
+                return skipMalformedRow("Missing closing quote: Expected '\"' but found 'end of string'");
+            }
+            if (pos + 1 < limit && source.get(pos + 1) == '"') {
+                hasEscapedQuotes = true;
+                pos += 2;
+                continue;
+            }
+            addCell(cellStart, pos, hasEscapedQuotes);
+            pos++;
+            if (pos == limit) {
+                return true;
+            }
+            if (testDelimiter()) {
+                pos += delimiter.length;
+                return false;
+            }
+            int separator = lineSeparatorLength(pos);
+            if (separator > 0) {
+                pos += separator;
+                return true;
+            }
+            return skipMalformedRow(String.format(
+                    "Expected delimiter or end of line after closing quote but found '%s'",
+                    decode(source, pos, Math.min(limit, pos + 4), false).substring(0, 1)
+            ), pos);
+        }
+    }
+
+    /**
+     * Reports the current row as incorrect and skips the rest of it from the position outside of quotes.
+     * Quotes are tracked, so line separators in quoted cells don't end the row.
+     * @return true as the row has ended
+     */
+    private boolean skipMalformedRow(String reason, int from) {
+        malformed(reason);
+        pos = from;
+        boolean quoted = false;
+        while (pos < limit) {
+            if (source.get(pos) == '"') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                int separator = lineSeparatorLength(pos);
+                if (separator > 0) {
+                    pos += separator;
+                    break;
+                }
+            }
+            pos++;
+        }
+        return true;
+    }
+
+    /**
+     * Reports the current row as incorrect and skips it up to the first line separator after its start,
+     * quotes are ignored. Used when a quoted cell isn't closed up to the end of source, so the rest of source
+     * isn't lost. Rows are scanned again from there.
+     * @return true as the row has ended
+     */
+    private boolean skipMalformedRow(String reason) {
+        malformed(reason);
+        pos = rowStart;
+        while (pos < limit) {
+            int separator = lineSeparatorLength(pos);
+            if (separator > 0) {
+                pos += separator;
+                break;
+            }
+            pos++;
+        }
+        return true;
+    }
+
+    @Override
+    long getRowPosition() {
+        return rowStart - start;
+    }
+
+    /**
+     * Returns number of bytes read so far
+     */
+    @Override
+    long getPosition() {
+        return pos - start;
+    }
+
+    /**
+     * Returns position of the first byte of the cell value in the source buffer. Quotes around the cell
+     * are not included
+     */
+    int getCellStart(int i) {
+        return starts[i];
+    }
+
+    /**
+     * Returns position after the last byte of the cell value in the source buffer
+     */
+    int getCellEnd(int i) {
+        return ends[i];
+    }
+
+    @Override
+    String getCell(int i) {
+        return decode(source, starts[i], ends[i], escaped[i]);
+    }
+
+    /**
+     * Decodes bytes of a cell. Escaped quotes ("") are replaced by single ones if the cell has them,
+     * malformed sequences are replaced by the replacement character
+     */
+    static String decode(ByteBuffer source, int start, int end, boolean hasEscapedQuotes) {
+        if (!hasEscapedQuotes && source.hasArray()) {
+            return new String(source.array(), source.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (int j = start; j < end; j++) {
+            byte b = source.get(j);
+            bytes[length++] = b;
+            if (hasEscapedQuotes && b == '"') {
+                j++;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
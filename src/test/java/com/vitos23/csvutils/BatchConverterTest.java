@@ -0,0 +1,120 @@
+package com.vitos23.csvutils;
+
+import com.google.gson.JsonParser;
+import com.vitos23.csvutils.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchConverterTest {
+    @Test
+    void testConvertDirectory(@TempDir Path dir) throws IOException {
+        for (int i = 0; i < 50; i++) {
+            String s = "id,text\n" + i + ",\"a\"\"" + i + "\"\n";
+            Files.write(dir.resolve(String.format("table%02d.csv", i)), s.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(dir.resolve("table50.csv"), "id,text\n1\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("notes.txt"), "not a table".getBytes(StandardCharsets.UTF_8));
+        CsvParseOptions options = new CsvParseOptions().setHeader(true);
+        List<BatchConverter.Result> results = new BatchConverter(options, CsvConversionMetrics.Format.JSON)
+                .setParallelism(2)
+                .setMaxPending(3)
+                .convertDirectory(dir);
+
+        assertEquals(51, results.size());
+        for (int i = 0; i < 50; i++) {
+            BatchConverter.Result result = results.get(i);
+            assertTrue(result.isSuccess(), result.toString());
+            assertEquals(dir.resolve(String.format("table%02d.csv", i)), result.getSource());
+            assertEquals(dir.resolve(String.format("table%02d.json", i)), result.getOutput());
+            assertEquals(1, result.getRows());
+            StringWriter expected = new StringWriter();
+            CsvParser.parse(Files.readString(result.getSource()), options).writeJson(expected);
+            assertEquals(expected.toString(), Files.readString(result.getOutput()));
+        }
+        BatchConverter.Result failed = results.get(50);
+        assertFalse(failed.isSuccess());
+        assertTrue(failed.getError() instanceof ParseException);
+        assertFalse(Files.exists(failed.getOutput()));
+    }
+
+    @Test
+    void testOutputDirectory(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("table.csv");
+        Path out = Files.createDirectory(dir.resolve("out"));
+        Files.write(source, "1;<b>\n2;3\n".getBytes(StandardCharsets.UTF_8));
+        List<BatchConverter.Result> results = new BatchConverter(
+                new CsvParseOptions().setDelimiter(";"), CsvConversionMetrics.Format.HTML
+        ).setOutputDirectory(out).convert(List.of(source, dir.resolve("missing.csv")));
+
+        assertEquals(out.resolve("table.html"), results.get(0).getOutput());
+        assertEquals(CsvParser.parse("1;<b>\n2;3\n", false, ";").toHtml(), Files.readString(out.resolve("table.html")));
+        assertTrue(results.get(1).getError() instanceof IOException);
+    }
+
+    @Test
+    void testCompressedFiles(@TempDir Path dir) throws IOException {
+        String s = "id,text\n1,a\n2,b\n";
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(dir.resolve("gz.csv.gz")))) {
+            out.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(dir.resolve("zip.zip")))) {
+            out.putNextEntry(new ZipEntry("zip.csv"));
+            out.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        List<BatchConverter.Result> results = new BatchConverter(
+                new CsvParseOptions().setHeader(true), CsvConversionMetrics.Format.JSON
+        ).convertDirectory(dir);
+
+        assertEquals(2, results.size());
+        assertEquals(dir.resolve("gz.json"), results.get(0).getOutput());
+        assertEquals(dir.resolve("zip.json"), results.get(1).getOutput());
+        String expected = CsvParser.parse(s, true).toJson().toString();
+        for (BatchConverter.Result result : results) {
+            assertTrue(result.isSuccess(), result.toString());
+            assertEquals(2, result.getRows());
+            assertEquals(expected, JsonParser.parseString(Files.readString(result.getOutput())).toString());
+        }
+    }
+
+    @Test
+    void testSharedErrorReport(@TempDir Path dir) throws IOException {
+        for (int i = 0; i < 40; i++) {
+            String s = "id,text\n1,a\n2,\"b\"x\n3,c\n4\n5,e\n";
+            Files.write(dir.resolve(String.format("table%02d.csv", i)), s.getBytes(StandardCharsets.UTF_8));
+        }
+        CsvErrorReport report = new CsvErrorReport(1000);
+        List<BatchConverter.Result> results = new BatchConverter(
+                new CsvParseOptions().setHeader(true).setErrorReport(report), CsvConversionMetrics.Format.JSON
+        ).setParallelism(4).convertDirectory(dir);
+
+        assertEquals(80, report.getErrorCount());
+        assertEquals(80, report.getErrors().size());
+        for (BatchConverter.Result result : results) {
+            assertTrue(result.isSuccess(), result.toString());
+            assertEquals(3, result.getRows());
+            List<Long> rows = new ArrayList<>();
+            for (CsvErrorReport.RowError error : report.getErrors()) {
+                if (result.getSource().toString().equals(error.getSource())) {
+                    rows.add(error.getRow());
+                }
+            }
+            assertEquals(List.of(3L, 5L), rows);
+        }
+    }
+}
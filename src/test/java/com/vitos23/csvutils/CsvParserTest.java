@@ -2,8 +2,23 @@ package com.vitos23.csvutils;
 
 import com.vitos23.csvutils.exceptions.ParseException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class CsvParserTest {
@@ -40,6 +55,259 @@ public class CsvParserTest {
         assertEquals(table, tableParsed);
     }
 
+    @Test
+    void testDelimiterInQuotes() {
+        CsvTable table = new CsvTable(
+                new String[][]{{"1,2", "", "3"}, {"", "4", ""}}
+        );
+        String s = "\"1,2\",,3\r\n,4,";
+        assertEquals(table, CsvParser.parse(s, false));
+    }
+
+    @Test
+    void testMultiCharDelimiter() {
+        CsvTable table = new CsvTable(
+                new String[]{"a", "b:c"},
+                new String[][]{{"1", ":2"}, {"3", "::"}}
+        );
+        String s = "a::\"b:c\"\n1:::2\n3::\"::\"\n";
+        assertEquals(table, CsvParser.parse(s, true, "::"));
+    }
+
+    @Test
+    void testLineSeparators() {
+        CsvTable table = new CsvTable(
+                new String[][]{{"1", "2"}, {"3", "4"}, {"5", "6"}, {"7", "8"}, {"9", "0"}}
+        );
+        String s = "1,2\r3,4\u20285,6\u00857,8\u000c9,0";
+        assertEquals(table, CsvParser.parse(s, false));
+    }
+
+    @Test
+    void testLazyCells() {
+        StringBuilder s = new StringBuilder("a;\"b\"\"\";c\n");
+        for (int i = 0; i < 10000; i++) {
+            s.append(i).append(";\"x\"\"").append(i).append("\n\";\r\n");
+        }
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setDelimiter(";").setLazyCells(true);
+        CsvTable lazy = CsvParser.parse(s.toString(), options);
+        assertEquals(CsvParser.parse(s.toString(), true, ";"), lazy);
+        assertEquals("x\"5\n", lazy.getCell(5, 1));
+        lazy.setCell(5, 1, "y");
+        assertEquals("y", lazy.getCell(5, 1));
+        assertEquals("6", lazy.getCell(6, 0));
+    }
+
+    @Test
+    void testInferTypes() {
+        String s = "int,long,double,bool,mixed,empty,str\n" +
+                "1,9223372036854775807,1.5,true,1,,-0\n" +
+                ",-9223372036854775808,,false,2.5,,007\n" +
+                "-3,2,1.0E10,,x,,9223372036854775808\n" +
+                "2147483647,,-0.5,true,\"\"\"q\"\"\",,1.50\n";
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setInferTypes(true);
+        CsvTable table = CsvParser.parse(s, options);
+        assertEquals(CsvParser.parse(s, true), table);
+        assertEquals(2147483647, table.getInt(3, 0));
+        assertEquals(Long.MIN_VALUE, table.getLong(1, 1));
+        assertEquals(1e10, table.getDouble(2, 2));
+        assertEquals(-3.0, table.getDouble(2, 0));
+        assertTrue(table.getBoolean(0, 3));
+        assertEquals("\"q\"", table.getCell(3, 4));
+        assertThrows(NumberFormatException.class, () -> table.getInt(1, 0));
+        table.setCell(1, 0, "abc");
+        assertEquals("abc", table.getCell(1, 0));
+        assertEquals(1, table.getInt(0, 0));
+        table.setCell(0, 5, "5");
+        assertEquals("5", table.getCell(0, 5));
+    }
+
+    @Test
+    void testDictionaryEncoding() {
+        String[] countries = {"US", "DE", "\"F\"\"R\"", "", "JP"};
+        StringBuilder s = new StringBuilder("id,country,name\n");
+        for (int i = 0; i < 1000; i++) {
+            s.append(i).append(',').append(countries[i % countries.length]).append(",n").append(i).append('\n');
+        }
+        for (boolean inferTypes : new boolean[]{false, true}) {
+            CsvParseOptions options = new CsvParseOptions()
+                    .setHeader(true).setInferTypes(inferTypes).setDictionaryEncoding(10);
+            CsvTable table = CsvParser.parse(s.toString(), options);
+            assertEquals(CsvParser.parse(s.toString(), true), table);
+            assertSame(table.getCell(0, 1), table.getCell(5, 1));
+            assertEquals("F\"R", table.getCell(7, 1));
+            table.setCell(0, 1, "UK");
+            assertEquals("UK", table.getCell(0, 1));
+            assertEquals("US", table.getCell(5, 1));
+        }
+    }
+
+    @Test
+    void testColumns() {
+        String s = "a,b,c,d\n1,\"x,\ny\",3,4\n5,6,\"7\"\"\",8\n";
+        CsvTable expected = new CsvTable(
+                new String[]{"c", "a"},
+                new String[][]{{"3", "1"}, {"7\"", "5"}}
+        );
+        assertEquals(expected, CsvParser.parse(s, new CsvParseOptions().setHeader(true).setColumns("c", "a")));
+        assertEquals(expected, CsvParser.parse(s, new CsvParseOptions().setHeader(true).setColumns(2, 0)));
+        CsvTable lazy = CsvParser.parse(s, new CsvParseOptions().setHeader(true).setColumns(1).setLazyCells(true));
+        assertEquals("x,\ny", lazy.getCell(0, 0));
+        CsvTable typed = CsvParser.parse(s, new CsvParseOptions().setColumns(3).setInferTypes(true));
+        assertEquals(8, typed.getInt(2, 0));
+    }
+
+    @Test
+    void testFilter() {
+        String s = "id,status,note\n1,FAILED,x\n2,DONE,\"y\n\"\n3,\"FAILED\",\"\"\"z\"\n4,\"FAI\"\"LED\",w\n";
+        CsvTable expected = new CsvTable(
+                new String[]{"note", "id"},
+                new String[][]{{"x", "1"}, {"\"z", "3"}}
+        );
+        CsvParseOptions options = new CsvParseOptions()
+                .setHeader(true)
+                .setColumns("note", "id")
+                .addFilter("status", "FAILED"::contentEquals);
+        assertEquals(expected, CsvParser.parse(s, options));
+        options = new CsvParseOptions().addFilter(1, cell -> cell.toString().contains("\""));
+        assertEquals(new CsvTable(new String[][]{{"4", "FAI\"LED", "w"}}), CsvParser.parse(s, options));
+        options = new CsvParseOptions()
+                .setHeader(true)
+                .addFilter(0, cell -> cell.charAt(0) != '1')
+                .addFilter("id", cell -> cell.charAt(0) != '3');
+        assertEquals(2, CsvParser.parse(s, options).getHeight());
+        assertThrows(ParseException.class, () -> CsvParser.parse(
+                s + "5,DONE\n", new CsvParseOptions().setHeader(true).addFilter(1, "FAILED"::contentEquals)
+        ));
+    }
+
+    @Test
+    void testParseMetrics() {
+        String s = "id,status\n1,\"FAILED\"\n2,DONE\n3,DONE\n";
+        CsvParseMetrics[] reported = new CsvParseMetrics[1];
+        CsvParseOptions options = new CsvParseOptions()
+                .setHeader(true)
+                .addFilter("status", "DONE"::contentEquals)
+                .setMetricsListener(new CsvMetricsListener() {
+                    @Override
+                    public void parsed(CsvParseMetrics metrics) {
+                        reported[0] = metrics;
+                    }
+                });
+        for (int storage = 0; storage < 3; storage++) {
+            CsvParser.parse(s, options.setLazyCells(storage == 1).setInferTypes(storage == 2));
+            assertEquals(s.length(), reported[0].getChars());
+            assertEquals(0, reported[0].getBytes());
+            assertEquals(2, reported[0].getRows());
+            assertEquals(1, reported[0].getRejectedRows());
+            assertEquals(8, reported[0].getCells());
+            assertEquals(1, reported[0].getQuotedCells());
+            assertEquals(2, reported[0].getMaxRowWidth());
+            assertTrue(reported[0].getEstimatedBytes() > 0);
+        }
+        byte[] bytes = s.replace("FAILED", "\u043e\u0448\u0438\u0431\u043a\u0430").getBytes(StandardCharsets.UTF_8);
+        CsvParser.parse(bytes, options);
+        assertEquals(0, reported[0].getChars());
+        assertEquals(bytes.length, reported[0].getBytes());
+        assertEquals(2, reported[0].getRows());
+    }
+
+    @Test
+    void testBytes() {
+        StringBuilder s = new StringBuilder("id\u00a7text\u00a7\"quoted\u2029header\"\n");
+        for (int i = 0; i < 1000; i++) {
+            s.append(i).append("\u00a7\"\u044b\u2028").append(i).append(" \"\"\u00a7\"\"\r\n\"\u00a7")
+                    .append(i % 7).append(i % 3 == 0 ? "\u0085" : i % 3 == 1 ? "\u2029" : "\r\n");
+        }
+        byte[] bytes = s.toString().getBytes(StandardCharsets.UTF_8);
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setDelimiter("\u00a7");
+        assertEquals(CsvParser.parse(s.toString(), options), CsvParser.parse(bytes, options));
+        options.setLazyCells(true);
+        CsvTable lazy = CsvParser.parse(bytes, options);
+        assertEquals(CsvParser.parse(s.toString(), options), lazy);
+        assertEquals("\u044b\u20285 \"\u00a7\"\r\n", lazy.getCell(5, 1));
+        lazy.setCell(5, 1, "y");
+        assertEquals("y", lazy.getCell(5, 1));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+        direct.put((byte) 1).put(bytes).flip().position(1);
+        options.setColumns("text", "id").addFilter(2, "3"::contentEquals);
+        CsvTable filtered = CsvParser.parse(direct, options);
+        assertEquals(CsvParser.parse(s.toString(), options), filtered);
+        assertEquals(1, direct.position());
+        assertEquals("\u044b\u20283 \"\u00a7\"\r\n", filtered.getCell(0, 0));
+    }
+
+    @Test
+    void testLenient() {
+        String s = "a,b\n1,2\n3,x\"y\n4,5,6\n\"7\"z,8\n9,10\n\"11,12\n13,14";
+        CsvTable expected = new CsvTable(new String[]{"a", "b"}, new String[][]{{"1", "2"}, {"9", "10"}, {"13", "14"}});
+        CsvErrorReport errors = new CsvErrorReport(10);
+        assertEquals(expected, CsvParser.parse(s, new CsvParseOptions().setHeader(true).setErrorReport(errors)));
+        assertEquals(4, errors.getErrorCount());
+        assertFalse(errors.isTruncated());
+        long[][] positions = {{3, 8}, {4, 14}, {5, 20}, {7, 32}};
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i][0], errors.getErrors().get(i).getRow());
+            assertEquals(positions[i][1], errors.getErrors().get(i).getOffset());
+        }
+        assertEquals("Missing opening quote", errors.getErrors().get(0).getReason());
+        assertEquals("Rows have different number of columns", errors.getErrors().get(1).getReason());
+
+        CsvErrorReport truncated = new CsvErrorReport(2);
+        List<CsvParseMetrics> metrics = new ArrayList<>();
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setErrorReport(truncated)
+                .setMetricsListener(new CsvMetricsListener() {
+                    @Override
+                    public void parsed(CsvParseMetrics parsed) {
+                        metrics.add(parsed);
+                    }
+                });
+        assertEquals(expected, CsvParser.parse(s.getBytes(StandardCharsets.UTF_8), options));
+        assertEquals(4, truncated.getErrorCount());
+        assertTrue(truncated.isTruncated());
+        assertEquals(errors.getErrors().subList(0, 2).toString(), truncated.getErrors().toString());
+        assertEquals(4, metrics.get(0).getMalformedRows());
+    }
+
+    @Test
+    void testLenientQuotedLines() {
+        String s = "a,b\n1,x\"y,\"p\nq\"\n2,\"u\"v,\"m\r\n3,4\"\n5,6\n";
+        CsvTable expected = new CsvTable(new String[]{"a", "b"}, new String[][]{{"5", "6"}});
+        for (boolean bytes : new boolean[]{false, true}) {
+            CsvErrorReport errors = new CsvErrorReport(10);
+            CsvParseOptions options = new CsvParseOptions().setHeader(true).setErrorReport(errors);
+            assertEquals(expected, bytes
+                    ? CsvParser.parse(s.getBytes(StandardCharsets.UTF_8), options)
+                    : CsvParser.parse(s, options));
+            assertEquals(2, errors.getErrorCount());
+            assertEquals(2, errors.getErrors().get(0).getRow());
+            assertEquals(4, errors.getErrors().get(0).getOffset());
+            assertEquals(3, errors.getErrors().get(1).getRow());
+            assertEquals(16, errors.getErrors().get(1).getOffset());
+        }
+    }
+
+    @Test
+    void testInvalidColumns() {
+        String s = "a,b\n1,2\n";
+        assertThrows(IllegalArgumentException.class, () -> new CsvParseOptions().setColumns(1, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvParser.parse(s, new CsvParseOptions().setHeader(true).setColumns("c")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvParser.parse(s, new CsvParseOptions().setColumns("a")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvParser.parse(s, new CsvParseOptions().setHeader(true).setColumns(2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvParser.parse(s, new CsvParseOptions().setColumns(2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvParser.parse("a,b\n", new CsvParseOptions().setHeader(true).addFilter(2, cell -> true)));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvParser.parse(s, new CsvParseOptions().addFilter(2, cell -> true)));
+        assertThrows(ParseException.class,
+                () -> CsvParser.parse(s + "3\n", new CsvParseOptions().setColumns(0)));
+    }
+
     @Test
     void testInvalidNotSameSize1() {
         String s = "a;b;c;d\n1;\"2\";\"3\n2\";4\r\n\"5\";6\"\";7;8;9\n";
@@ -70,6 +338,60 @@ public class CsvParserTest {
         invalid(s, true, ",");
     }
 
+    @Test
+    void testParallel(@TempDir Path dir) throws IOException {
+        StringBuilder s = new StringBuilder("id;text;\"quoted\nheader\"\n");
+        for (int i = 0; i < 100000; i++) {
+            s.append(i).append(";\"line\n").append(i).append(" \"\"\u044b\"\"\n\";").append(i % 7).append("\r\n");
+        }
+        Path file = dir.resolve("table.csv");
+        Files.write(file, s.toString().getBytes(StandardCharsets.UTF_8));
+        CsvTable table = CsvParser.parse(s.toString(), true, ";");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(table, CsvParser.parseParallel(file, true, ";", pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelSeparators(@TempDir Path dir) throws IOException {
+        String[] separators = {"\r", "\u000b", "\f", "\u0085", "\u2028", "\u2029", "\r\n"};
+        ByteArrayOutputStream s = new ByteArrayOutputStream();
+        s.write("id,text\n".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 200000; i++) {
+            String separator = separators[i % separators.length];
+            s.write((i + ",\"a" + separator + "b\"" + separator).getBytes(StandardCharsets.UTF_8));
+            if (i % 1000 == 0) {
+                s.write(new byte[]{(byte) 0xff, ',', (byte) 0xc3, '\n'});
+            }
+        }
+        Path file = dir.resolve("table.csv");
+        Files.write(file, s.toByteArray());
+        CsvTable table = CsvParser.parse(s.toByteArray(), new CsvParseOptions().setHeader(true));
+        assertEquals(200000 + 200, table.getHeight());
+        assertEquals("\ufffd", table.getCell(1, 0));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(table, CsvParser.parseParallel(file, true, ",", pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelInvalid(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("table.csv");
+        Files.write(file, "a,b\n1,2\n3\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            CsvParser.parseParallel(file, true, ",");
+            fail("Expected error while parsing ragged table");
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
     private void invalid(String invalidCsvTable, boolean hasHeader, String delimiter) {
         try {
             CsvTable table = CsvParser.parse(invalidCsvTable, hasHeader, delimiter);
@@ -77,6 +399,10 @@ public class CsvParserTest {
         } catch (ParseException e) {
             System.out.println(e.getMessage());
         }
+        CsvParseOptions options = new CsvParseOptions().setHeader(hasHeader).setDelimiter(delimiter);
+        assertThrows(ParseException.class, () -> CsvParser.parse(
+                invalidCsvTable.getBytes(StandardCharsets.UTF_8), options
+        ));
     }
 
     /*@Test
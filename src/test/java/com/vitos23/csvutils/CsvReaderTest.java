@@ -0,0 +1,242 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvReaderTest {
+    @Test
+    void test() {
+        String s = "a;b;c;d\n1;\"2\";\"3\n2\";4\r\n\"5\";6\"\";7;8\n";
+        CsvReader reader = new CsvReader(new StringReader(s), true, ";");
+        assertArrayEquals(new String[]{"a", "b", "c", "d"}, reader.getHeader());
+        assertArrayEquals(new String[]{"1", "2", "3\n2", "4"}, reader.next());
+        assertArrayEquals(new String[]{"5", "6\"", "7", "8"}, reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testCharByChar() {
+        String s = "a,b\r\n\"x\"\"\r\ny\",z\r\n";
+        CsvReader reader = new CsvReader(new OneCharReader(new StringReader(s)), false, ",");
+        assertNull(reader.getHeader());
+        assertArrayEquals(new String[]{"a", "b"}, reader.next());
+        assertArrayEquals(new String[]{"x\"\r\ny", "z"}, reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testStream() throws IOException {
+        String s = "id,v\n1,a\n2,b\n3,c";
+        try (CsvReader reader = new CsvReader(
+                new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, true, ","
+        )) {
+            List<String> values = reader.stream().map(row -> row[1]).collect(Collectors.toList());
+            assertEquals(List.of("a", "b", "c"), values);
+        }
+    }
+
+    @Test
+    void testSameAsParser() {
+        StringBuilder s = new StringBuilder("a,b,c\n");
+        for (int i = 0; i < 10000; i++) {
+            s.append(i).append(",\"q").append(i).append("\"\"\n\",x\r\n");
+        }
+        CsvTable table = CsvParser.parse(s.toString(), true);
+        CsvReader reader = new CsvReader(new StringReader(s.toString()), true);
+        for (int row = 0; row < table.getHeight(); row++) {
+            String[] cells = reader.next();
+            for (int col = 0; col < table.getWidth(); col++) {
+                assertEquals(table.getCell(row, col), cells[col]);
+            }
+        }
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testWriteJson() throws IOException {
+        String s = "a,b\n1,\"x\"\"\"\n2,y\n";
+        StringWriter json = new StringWriter();
+        new CsvReader(new StringReader(s), true).writeJson(json);
+        assertEquals(CsvParser.parse(s, true).toJson().toString(), json.toString());
+
+        json = new StringWriter();
+        new CsvReader(new StringReader(s), false).writeJsonArrays(json);
+        assertEquals(CsvParser.parse(s, false).toJsonArrays().toString(), json.toString());
+
+        json = new StringWriter();
+        new CsvReader(new StringReader(s), false).writeJson(json);
+        assertEquals(CsvParser.parse(s, false).toJson().toString(), json.toString());
+    }
+
+    @Test
+    void testWriteHtml() throws IOException {
+        StringBuilder s = new StringBuilder("a,<b>\n");
+        for (int i = 0; i < 3000; i++) {
+            s.append(i).append(",\"&x<").append(i).append(">\"\n");
+        }
+        StringWriter html = new StringWriter();
+        new CsvReader(new StringReader(s.toString()), true).writeHtml(html);
+        assertEquals(CsvParser.parse(s.toString(), true).toHtml(), html.toString());
+    }
+
+    @Test
+    void testColumns() {
+        String s = "a;b;c\n1;\"2;\";3\n4;5;6\n";
+        CsvReader reader = new CsvReader(
+                new StringReader(s), new CsvParseOptions().setHeader(true).setDelimiter(";").setColumns("c", "b")
+        );
+        assertArrayEquals(new String[]{"c", "b"}, reader.getHeader());
+        assertArrayEquals(new String[]{"3", "2;"}, reader.next());
+        assertArrayEquals(new String[]{"6", "5"}, reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testFilter() {
+        StringBuilder s = new StringBuilder("id,status\n");
+        for (int i = 0; i < 10000; i++) {
+            s.append(i).append(',').append(i % 100 == 0 ? "FAILED" : "DONE").append('\n');
+        }
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).addFilter("status", "FAILED"::contentEquals);
+        CsvReader reader = new CsvReader(new StringReader(s.toString()), options);
+        List<String> ids = reader.stream().map(row -> row[0]).collect(Collectors.toList());
+        assertEquals(100, ids.size());
+        assertEquals("9900", ids.get(99));
+    }
+
+    @Test
+    void testParseMetrics() {
+        List<CsvParseMetrics> reported = new ArrayList<>();
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setMetricsListener(new CsvMetricsListener() {
+            @Override
+            public void parsed(CsvParseMetrics metrics) {
+                reported.add(metrics);
+            }
+        });
+        CsvReader reader = new CsvReader(new StringReader("a,b\n1,2\n3,4"), options);
+        reader.next();
+        reader.next();
+        assertEquals(0, reported.size());
+        assertFalse(reader.hasNext());
+        assertFalse(reader.hasNext());
+        assertEquals(1, reported.size());
+        assertEquals(2, reported.get(0).getRows());
+        assertEquals(11, reported.get(0).getChars());
+        assertEquals(0, reported.get(0).getEstimatedBytes());
+    }
+
+    @Test
+    void testCompressedFiles(@TempDir Path dir) throws IOException {
+        StringBuilder s = new StringBuilder("id;text\n");
+        for (int i = 0; i < 100000; i++) {
+            s.append(i).append(";\"\u044b\n").append(i).append("\"\"\"\r\n");
+        }
+        byte[] bytes = s.toString().getBytes(StandardCharsets.UTF_8);
+        Path plain = Files.write(dir.resolve("table.csv"), bytes);
+        Path gzip = dir.resolve("table.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(bytes);
+        }
+        Path zip = dir.resolve("table.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("table.csv"));
+            out.write(bytes);
+        }
+
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setDelimiter(";");
+        CsvTable table = CsvParser.parse(s.toString(), options);
+        for (Path file : List.of(plain, gzip, zip)) {
+            assertEquals(table, CsvParser.parse(file, options));
+            try (CsvReader reader = CsvReader.open(file, options)) {
+                assertArrayEquals(new String[]{"id", "text"}, reader.getHeader());
+                List<String[]> rows = reader.stream().collect(Collectors.toList());
+                assertEquals(table.getHeight(), rows.size());
+                assertArrayEquals(new String[]{"99999", "\u044b\n99999\""}, rows.get(99999));
+            }
+        }
+        try (CsvReader reader = CsvReader.open(gzip, options)) {
+            assertArrayEquals(new String[]{"0", "\u044b\n0\""}, reader.next());
+        }
+    }
+
+    @Test
+    void testTruncatedGzip(@TempDir Path dir) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            for (int i = 0; i < 100000; i++) {
+                out.write((i + "," + (i * 31) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Path file = Files.write(dir.resolve("table.csv.gz"), Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2));
+        assertThrows(IOException.class, () -> CsvParser.parse(file, new CsvParseOptions()));
+        try (CsvReader reader = CsvReader.open(file, new CsvParseOptions())) {
+            assertArrayEquals(new String[]{"0", "0"}, reader.next());
+            assertThrows(UncheckedIOException.class, () -> reader.stream().count());
+        }
+    }
+
+    @Test
+    void testPipelineErrorAfterBytes() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new EOFException("Unexpected end of source");
+            }
+        };
+        byte[] bytes = "1,2\n3,4\n".getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = new PipelinedInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(bytes), failing), 16, 2)) {
+            byte[] read = new byte[16];
+            assertEquals(bytes.length, in.read(read));
+            assertArrayEquals(bytes, Arrays.copyOf(read, bytes.length));
+            assertThrows(EOFException.class, () -> in.read(read));
+        }
+    }
+
+    @Test
+    void testInvalidNotSameSize() {
+        CsvReader reader = new CsvReader(new StringReader("a,b\n1,2,3\n"), true);
+        assertThrows(ParseException.class, reader::next);
+    }
+
+    private static class OneCharReader extends FilterReader {
+        OneCharReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.IncorrectInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvTableCacheTest {
+    @Test
+    void testHitsAndChanges(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("a.csv");
+        Files.writeString(file, "id,name\n1,a\n2,b\n");
+        CsvTableCache cache = new CsvTableCache(new CsvParseOptions().setHeader(true), 1 << 20);
+
+        CsvTable table = cache.get(file);
+        assertEquals(2, table.getHeight());
+        assertSame(table, cache.get(dir.resolve("x/../a.csv")));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+        assertEquals(table.estimateBytes(), cache.getEstimatedBytes());
+
+        Files.writeString(file, "id,name\n1,a\n2,b\n3,c\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1000));
+        CsvTable changed = cache.get(file);
+        assertNotSame(table, changed);
+        assertEquals(3, changed.getHeight());
+        assertEquals(1, cache.size());
+        assertEquals(changed.estimateBytes(), cache.getEstimatedBytes());
+
+        cache.invalidate(file);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEstimatedBytes());
+        assertNotSame(changed, cache.get(file));
+        assertEquals(3, cache.getLoadCount());
+
+        Files.writeString(file, "id,name\n1,\"a\n");
+        assertThrows(IncorrectInputException.class, () -> cache.get(file));
+        assertThrows(IOException.class, () -> cache.get(dir.resolve("missing.csv")));
+        assertThrows(IllegalArgumentException.class, () -> new CsvTableCache(new CsvParseOptions(), -1));
+    }
+
+    @Test
+    void testEviction(@TempDir Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Path file = dir.resolve(i + ".csv");
+            Files.writeString(file, "a,b\n" + "x,y\n".repeat(10));
+            files.add(file);
+        }
+        long tableBytes = CsvParser.parse(files.get(0), new CsvParseOptions()).estimateBytes();
+        CsvTableCache cache = new CsvTableCache(new CsvParseOptions(), 2 * tableBytes);
+
+        CsvTable first = cache.get(files.get(0));
+        cache.get(files.get(1));
+        assertSame(first, cache.get(files.get(0)));
+        cache.get(files.get(2));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(first, cache.get(files.get(0)));
+        cache.get(files.get(1));
+        assertEquals(4, cache.getLoadCount());
+
+        CsvTableCache tiny = new CsvTableCache(new CsvParseOptions(), tableBytes - 1);
+        assertNotSame(tiny.get(files.get(0)), tiny.get(files.get(0)));
+        assertEquals(0, tiny.size());
+    }
+
+    @Test
+    void testConcurrentLoads(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("big.csv");
+        StringBuilder source = new StringBuilder("id,value\n");
+        for (int i = 0; i < 100000; i++) {
+            source.append(i).append(",value ").append(i).append('\n');
+        }
+        Files.writeString(file, source);
+        AtomicInteger parsings = new AtomicInteger();
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setMetricsListener(new CsvMetricsListener() {
+            @Override
+            public void parsed(CsvParseMetrics metrics) {
+                parsings.incrementAndGet();
+            }
+        });
+        CsvTableCache cache = new CsvTableCache(options, Long.MAX_VALUE);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<CsvTable>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(file);
+                }));
+            }
+            start.countDown();
+            CsvTable table = futures.get(0).get();
+            for (Future<CsvTable> future : futures) {
+                assertSame(table, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, parsings.get());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(threads, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -1,11 +1,31 @@
 package com.vitos23.csvutils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonParser;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class CsvTableTest {
     @Test
@@ -87,6 +107,374 @@ public class CsvTableTest {
         assertEquals(validArray, table.toJson());
     }
 
+    @Test
+    void testWriteJson() throws IOException {
+        CsvTable table = new CsvTable(
+                new String[]{"a", "b\"", "c"},
+                new String[][]{{"1", "<2>", "3\n"}, {"4", "5", "\u0001"}}
+        );
+        StringWriter json = new StringWriter();
+        table.writeJson(json);
+        assertEquals(table.toJson().toString(), json.toString());
+
+        json = new StringWriter();
+        table.writeJsonArrays(json);
+        assertEquals(table.toJsonArrays().toString(), json.toString());
+
+        json = new StringWriter();
+        table.writeJsonColumnArray(json);
+        assertEquals(table.toJsonColumnArray().toString(), json.toString());
+
+        table.setHeader(null);
+        json = new StringWriter();
+        table.writeJsonColumnArray(json);
+        assertEquals(table.toJsonColumnArray().toString(), json.toString());
+    }
+
+    @Test
+    void testConversionMetrics() throws IOException {
+        List<CsvConversionMetrics> conversions = new ArrayList<>();
+        CsvTable table = CsvParser.parse("a,b\n1,<2>\n3,4\n", new CsvParseOptions()
+                .setHeader(true)
+                .setMetricsListener(new CsvMetricsListener() {
+                    @Override
+                    public void converted(CsvConversionMetrics metrics) {
+                        conversions.add(metrics);
+                    }
+                }));
+        String html = table.toHtml();
+        StringWriter json = new StringWriter();
+        table.writeJsonArrays(json);
+        table.toJsonColumnArray();
+        assertEquals(3, conversions.size());
+        assertEquals(CsvConversionMetrics.Format.HTML, conversions.get(0).getFormat());
+        assertEquals(html.length(), conversions.get(0).getChars());
+        assertEquals(4, conversions.get(0).getCells());
+        assertEquals(json.toString().length(), conversions.get(1).getChars());
+        assertEquals(-1, conversions.get(2).getChars());
+        assertEquals(2, conversions.get(2).getRows());
+    }
+
+    @Test
+    void testJmxMetrics() throws JMException {
+        JmxCsvMetrics metrics = new JmxCsvMetrics();
+        ObjectName name = metrics.register("test");
+        try {
+            CsvParseOptions options = new CsvParseOptions().setHeader(true).setMetricsListener(metrics);
+            CsvParser.parse("a,b\n1,\"2\"\n3,4\n", options).toHtml();
+            CsvParser.parse("a,b,c\n1,2,3\n", options);
+            CsvParser.parse("a\n\u00e9\n".getBytes(StandardCharsets.UTF_8), options);
+            Object rows = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ParsedRows");
+            assertEquals(4L, rows);
+            assertEquals(3, metrics.getParseCount());
+            assertEquals(26, metrics.getParsedChars());
+            assertEquals(5, metrics.getParsedBytes());
+            assertEquals(1, metrics.getQuotedCells());
+            assertEquals(3, metrics.getMaxRowWidth());
+            assertEquals(1, metrics.getConversionCount());
+            assertTrue(metrics.getLastEstimatedBytes() > 0);
+            metrics.reset();
+            assertEquals(0, metrics.getParsedRows());
+        } finally {
+            metrics.unregister("test");
+        }
+    }
+
+    @Test
+    void testSnapshot(@TempDir Path dir) throws IOException {
+        StringBuilder s = new StringBuilder("id,name,\"n\u00e4me\"\n");
+        for (int i = 0; i < 1000; i++) {
+            s.append(i).append(",\"x\"\"").append(i).append("\",\u044b").append(i % 7 == 0 ? "" : "z").append('\n');
+        }
+        Path file = dir.resolve("table.snapshot");
+        CsvTable table = CsvParser.parse(s.toString(), new CsvParseOptions().setHeader(true).setInferTypes(true));
+        table.setCell(3, 1, null);
+        table.writeSnapshot(file);
+        CsvTable opened = CsvTable.openSnapshot(file);
+        assertEquals(table, opened);
+        assertNull(opened.getCell(3, 1));
+        assertEquals(999, opened.getInt(999, 0));
+        opened.setCell(0, 2, "new");
+        assertEquals("new", opened.getCell(0, 2));
+        assertEquals("new", opened.getCell(0, 2));
+
+        CsvTable empty = new CsvTable(new String[][]{});
+        empty.writeSnapshot(file);
+        assertEquals(empty, CsvTable.openSnapshot(file));
+
+        CsvTable headerOnly = CsvParser.parse("a,b\n", true);
+        headerOnly.writeSnapshot(file);
+        assertEquals(headerOnly, CsvTable.openSnapshot(file));
+
+        Files.writeString(file, "a,b\n1,2\n3,4\n5,6\n7,8\n9,10\n");
+        assertThrows(IOException.class, () -> CsvTable.openSnapshot(file));
+    }
+
+    @Test
+    void testIndex() {
+        StringBuilder s = new StringBuilder("id,status\n");
+        for (int i = 0; i < 1000; i++) {
+            s.append(i).append(',').append(i % 3 == 0 ? "FAILED" : "DONE").append('\n');
+        }
+        CsvTable table = CsvParser.parse(s.toString(), new CsvParseOptions().setHeader(true).setInferTypes(true));
+        int[] failed = table.findRows(1, "FAILED");
+        table.createIndex(1);
+        assertArrayEquals(failed, table.findRows(1, "FAILED"));
+        assertEquals(334, failed.length);
+        table.setCell(4, 1, "FAILED");
+        table.setCell(3, 1, null);
+        assertArrayEquals(new int[]{0, 4, 6}, Arrays.copyOf(table.findRows(1, "FAILED"), 3));
+        assertArrayEquals(new int[]{3}, table.findRows(1, null));
+        assertArrayEquals(new int[0], table.findRows(1, "PENDING"));
+        table.dropIndex(1);
+        assertArrayEquals(new int[]{3}, table.findRows(1, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.createIndex(2));
+    }
+
+    @Test
+    void testSortedIndex() {
+        CsvTable table = CsvParser.parse("v\n5\n10\n7\n5\n1\n", true);
+        table.createSortedIndex(0, Comparator.comparingInt(Integer::parseInt));
+        assertArrayEquals(new int[]{0, 2, 3}, table.findRows(0, "5", "10"));
+        assertArrayEquals(new int[]{0, 3}, table.findRows(0, "5"));
+        table.setCell(1, 0, "6");
+        assertArrayEquals(new int[]{0, 1, 2, 3}, table.findRows(0, "5", "10"));
+        assertArrayEquals(new int[0], table.findRows(0, "10", "5"));
+        table.deleteRow(1);
+        assertArrayEquals(new int[]{0, 1, 2}, table.findRows(0, "5", "10"));
+        assertArrayEquals(new int[]{3}, table.findRows(0, "1"));
+        table.createIndex(0);
+        assertThrows(IllegalStateException.class, () -> table.findRows(0, "1", "2"));
+    }
+
+    @Test
+    void testGroupBy() {
+        String s = "country,city,sales,price\nUS,NY,10,1.5\nDE,Berlin,5,2\nUS,LA,7,\nUS,NY,1,0.5\n";
+        CsvTable expected = new CsvTable(
+                new String[]{"country", "count", "sum(sales)", "min(sales)", "max(price)", "avg(price)"},
+                new String[][]{{"US", "3", "18", "1", "1.5", "1.0"}, {"DE", "1", "5", "5", "2", "2.0"}}
+        );
+        for (boolean inferTypes : new boolean[]{false, true}) {
+            CsvTable table = CsvParser.parse(s, new CsvParseOptions().setHeader(true).setInferTypes(inferTypes));
+            Aggregate[] aggregates = {
+                    Aggregate.count(), Aggregate.sum(2), Aggregate.min(2), Aggregate.max(3), Aggregate.avg(3)
+            };
+            assertEquals(expected, table.groupBy(new int[]{0}, aggregates));
+            CsvTable byCity = table.groupBy(new int[]{0, 1}, Aggregate.sum(2));
+            assertEquals(3, byCity.getHeight());
+            assertEquals("11", byCity.getCell(0, 2));
+            CsvTable total = table.groupBy(new int[0], Aggregate.count(), Aggregate.sum(3));
+            assertEquals("4", total.getCell(0, 0));
+            assertEquals("4.0", total.getCell(0, 1));
+        }
+        CsvTable table = CsvParser.parse(s, true);
+        assertThrows(NumberFormatException.class, () -> table.groupBy(new int[]{0}, Aggregate.sum(1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.groupBy(new int[]{4}, Aggregate.count()));
+
+        CsvTable signs = new CsvTable(new String[]{"k", "v"},
+                new String[][]{{"a", "+5"}, {"a", "007"}, {"b", "9223372036854775808"}, {"c", "-9223372036854775808"}});
+        CsvTable sums = signs.groupBy(new int[]{0}, Aggregate.sum(1));
+        assertEquals("12", sums.getCell(0, 1));
+        assertEquals("9.223372036854776E18", sums.getCell(1, 1));
+        assertEquals("-9223372036854775808", sums.getCell(2, 1));
+    }
+
+    @Test
+    void testGroupByLargeIntegers() {
+        String s = "key,value\na,9007199254740993\na,2\nb,1700000000123456789\nb,-1\nb,1.5\n"
+                + "c,9223372036854775807\nc,1\n";
+        for (boolean inferTypes : new boolean[]{false, true}) {
+            CsvTable table = CsvParser.parse(s, new CsvParseOptions().setHeader(true).setInferTypes(inferTypes));
+            CsvTable res = table.groupBy(new int[]{0}, Aggregate.sum(1), Aggregate.min(1), Aggregate.max(1));
+            assertEquals(new CsvTable(
+                    new String[]{"key", "sum(value)", "min(value)", "max(value)"},
+                    new String[][]{
+                            {"a", "9007199254740995", "2", "9007199254740993"},
+                            {"b", "1.70000000012345677E18", "-1.0", "1.70000000012345677E18"},
+                            {"c", "9.223372036854776E18", "1", "9223372036854775807"}
+                    }
+            ), res);
+        }
+        String[][] rows = new String[200000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[]{Integer.toString(i % 3), Long.toString((1L << 40) + i)};
+        }
+        CsvTable table = new CsvTable(rows);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsvTable parallel = table.groupByParallel(new int[]{0}, pool, Aggregate.sum(1), Aggregate.max(1));
+            assertEquals(table.groupBy(new int[]{0}, Aggregate.sum(1), Aggregate.max(1)), parallel);
+            long sum = 66667 * (1L << 40) + 3 * (66666L * 66667 / 2);
+            assertEquals(Long.toString(sum), parallel.getCell(0, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testGroupByParallel() {
+        String[][] rows = new String[300000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[]{Integer.toString(i % 7), Integer.toString(i)};
+        }
+        CsvTable table = new CsvTable(rows);
+        Aggregate[] aggregates = {Aggregate.count(), Aggregate.sum(1), Aggregate.min(1), Aggregate.max(1)};
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsvTable parallel = table.groupByParallel(new int[]{0}, pool, aggregates);
+            assertEquals(table.groupBy(new int[]{0}, aggregates), parallel);
+            assertEquals("0", parallel.getCell(0, 0));
+            assertEquals("299999", parallel.getCell(0, 4));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testJoin() {
+        CsvTable orders = CsvParser.parse(
+                "order,customer,region,amount\n1,c1,eu,10\n2,c2,us,20\n3,c1,us,30\n4,c9,eu,40\n5,c1,eu,50\n", true
+        );
+        CsvTable customers = CsvParser.parse("region,name,customer\neu,Ann,c1\nus,Bob,c2\nus,Ann US,c1\n", true);
+
+        CsvTable inner = orders.join(customers, CsvTable.JoinType.INNER, "customer");
+        assertEquals(new CsvTable(
+                new String[]{"order", "customer", "region", "amount", "right.region", "name"},
+                new String[][]{
+                        {"1", "c1", "eu", "10", "eu", "Ann"}, {"1", "c1", "eu", "10", "us", "Ann US"},
+                        {"2", "c2", "us", "20", "us", "Bob"},
+                        {"3", "c1", "us", "30", "eu", "Ann"}, {"3", "c1", "us", "30", "us", "Ann US"},
+                        {"5", "c1", "eu", "50", "eu", "Ann"}, {"5", "c1", "eu", "50", "us", "Ann US"}
+                }
+        ), inner);
+
+        CsvTable outer = orders.join(customers, CsvTable.JoinType.LEFT_OUTER, "customer", "region");
+        assertEquals(new CsvTable(
+                new String[]{"order", "customer", "region", "amount", "name"},
+                new String[][]{
+                        {"1", "c1", "eu", "10", "Ann"}, {"2", "c2", "us", "20", "Bob"},
+                        {"3", "c1", "us", "30", "Ann US"}, {"4", "c9", "eu", "40", ""}, {"5", "c1", "eu", "50", "Ann"}
+                }
+        ), outer);
+
+        CsvTable empty = CsvParser.parse("customer,name\n", true);
+        assertEquals(0, orders.join(empty, CsvTable.JoinType.INNER, "customer").getHeight());
+        assertEquals(5, orders.join(empty, CsvTable.JoinType.LEFT_OUTER, "customer").getHeight());
+
+        assertThrows(IllegalArgumentException.class, () -> orders.join(customers, CsvTable.JoinType.INNER, "amount"));
+        CsvTable prefixed = CsvParser.parse("customer,region,right.region\nc1,x,y\n", true);
+        assertThrows(IllegalArgumentException.class,
+                () -> prefixed.join(customers, CsvTable.JoinType.INNER, "customer"));
+        assertThrows(IllegalArgumentException.class, () -> orders.join(customers, CsvTable.JoinType.INNER));
+        assertThrows(IllegalArgumentException.class,
+                () -> orders.join(customers, CsvTable.JoinType.INNER, "customer", "customer"));
+        assertThrows(IllegalArgumentException.class,
+                () -> orders.join(new CsvTable(new String[][]{{"c1"}}), CsvTable.JoinType.INNER, "customer"));
+    }
+
+    @Test
+    void testJoinParallel() {
+        String[][] facts = new String[300000][];
+        for (int i = 0; i < facts.length; i++) {
+            facts[i] = new String[]{Integer.toString(i), Integer.toString(i % 1000)};
+        }
+        String[][] dimension = new String[900][];
+        for (int i = 0; i < dimension.length; i++) {
+            dimension[i] = new String[]{Integer.toString(i), "name " + i};
+        }
+        CsvTable left = new CsvTable(new String[]{"id", "key"}, facts);
+        CsvTable right = new CsvTable(new String[]{"key", "name"}, dimension);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (CsvTable.JoinType type : CsvTable.JoinType.values()) {
+                CsvTable parallel = left.joinParallel(right, type, pool, "key");
+                assertEquals(left.join(right, type, "key"), parallel);
+                assertEquals(type == CsvTable.JoinType.INNER ? 270000 : 300000, parallel.getHeight());
+                assertEquals(type == CsvTable.JoinType.INNER ? "name 899" : "",
+                        parallel.getCell(parallel.getHeight() - 1, 2));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testGrowing() {
+        CsvTable table = CsvParser.parse("id,name\n0,n0\n", true);
+        table.createIndex(1);
+        List<List<String>> expected = new ArrayList<>();
+        expected.add(new ArrayList<>(List.of("0", "n0")));
+        for (int i = 1; i < 5000; i++) {
+            table.appendRow(String.valueOf(i), "n" + i % 7);
+            expected.add(new ArrayList<>(List.of(String.valueOf(i), "n" + i % 7)));
+        }
+        assertEquals(714, table.findRows(1, "n3").length);
+        assertEquals(4996, table.findRows(1, "n5")[713]);
+
+        table.addColumn("flag", "-");
+        expected.forEach(row -> row.add("-"));
+        table.setCell(4000, 2, "+");
+        expected.get(4000).set(2, "+");
+        int[] deleted = {0, 1023, 1024, 2500, 4995, 2048, 4990, 3000};
+        for (int row : deleted) {
+            table.deleteRow(row);
+            expected.remove(row);
+        }
+        for (int i = 0; i < 1500; i++) {
+            table.appendRow("x" + i, "m", "?");
+            expected.add(new ArrayList<>(List.of("x" + i, "m", "?")));
+        }
+        table.removeColumn(0);
+        expected.forEach(row -> row.remove(0));
+        table.appendRows(List.of(new String[]{"a", "b"}, new String[]{"c", "d"}).iterator());
+        expected.add(List.of("a", "b"));
+        expected.add(List.of("c", "d"));
+
+        assertEquals("name", table.getColumnHeader(0));
+        assertEquals("flag", table.getColumnHeader(1));
+        assertEquals(expected.size(), table.getHeight());
+        assertEquals(2, table.getWidth());
+        for (int row = 0; row < expected.size(); row++) {
+            for (int col = 0; col < 2; col++) {
+                assertEquals(expected.get(row).get(col), table.getCell(row, col));
+            }
+        }
+        int[] n3 = IntStream.range(0, expected.size()).filter(row -> expected.get(row).get(0).equals("n3")).toArray();
+        assertArrayEquals(n3, table.findRows(0, "n3"));
+        int[] found = table.findRows(0, "m");
+        assertEquals(1500, found.length);
+        assertEquals(expected.size() - 3, found[1499]);
+
+        assertThrows(IllegalArgumentException.class, () -> table.appendRow("1", "2", "3"));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.deleteRow(expected.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.removeColumn(2));
+    }
+
+    @Test
+    void testGrowingWithoutHeader() {
+        CsvTable table = new CsvTable(new String[][]{{"1", "2"}, {"3", "4"}});
+        table.removeColumn(0);
+        table.removeColumn(0);
+        assertEquals(0, table.getWidth());
+        assertEquals(2, table.getHeight());
+        table.addColumn("ignored", "x");
+        table.appendRow("y");
+        for (int i = 0; i < 6; i++) {
+            table.addColumn(null, "c" + i);
+        }
+        table.setCell(2, 3, "z");
+        for (int i = 0; i < 6; i++) {
+            table.removeColumn(1);
+        }
+        assertEquals(new CsvTable(new String[][]{{"x"}, {"x"}, {"y"}}), table);
+
+        CsvTable empty = new CsvTable(new String[][]{});
+        empty.appendRow("a", "b", "c");
+        empty.deleteRow(0);
+        assertEquals(3, empty.getWidth());
+        assertThrows(IllegalArgumentException.class, () -> empty.appendRow("a"));
+    }
+
     @Test
     void testEquals() {
         CsvTable table1 = new CsvTable(
@@ -0,0 +1,67 @@
+package com.vitos23.csvutils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvWriterTest {
+    @Test
+    void testQuoting() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.writeRow("a", "b c", "", null, "1,5", "say \"hi\"", "x\ny", "\u2028");
+            writer.writeRow("");
+            writer.writeRow();
+        }
+        assertEquals("a,b c,,,\"1,5\",\"say \"\"hi\"\"\",\"x\ny\",\"\u2028\"\r\n\"\"\r\n\r\n", out.toString());
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        String[] values = {"", "plain", "\"", "a;;b", ";", "q\"q", "\r\n", "\u044b\u0085", "end;"};
+        String[][] rows = new String[5000][4];
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows[i].length; j++) {
+                rows[i][j] = values[(i * 7 + j * 3) % values.length] + (i % 5 == 0 ? "" : i);
+            }
+        }
+        CsvTable table = new CsvTable(new String[]{"id", "x;y", "\"z\"", ""}, rows);
+
+        StringWriter out = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(out, ";;")) {
+            writer.writeTable(table);
+        }
+        CsvTable parsed = CsvParser.parse(out.toString(), true, ";;");
+        assertEquals(table, parsed);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(bytes, StandardCharsets.UTF_8, ";;")) {
+            writer.writeRows(new CsvReader(new StringReader(out.toString()), false, ";;"));
+        }
+        assertEquals(out.toString(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testHeaderOnly() throws IOException {
+        CsvTable table = CsvParser.parse("a,b\n", true);
+        StringWriter out = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.writeTable(table);
+        }
+        assertEquals("a,b\r\n", out.toString());
+        assertEquals(table, CsvParser.parse(out.toString(), true));
+    }
+
+    @Test
+    void testInvalidDelimiter() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvWriter(new StringWriter(), "\"|"));
+        assertThrows(IllegalArgumentException.class, () -> new CsvWriter(new StringWriter(), "\n"));
+    }
+}
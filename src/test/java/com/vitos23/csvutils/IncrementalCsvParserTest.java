@@ -0,0 +1,136 @@
+package com.vitos23.csvutils;
+
+import com.vitos23.csvutils.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IncrementalCsvParserTest {
+    private static void append(Path file, byte[] bytes) throws IOException {
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void testSplitAppends(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("log.csv");
+        String s = "id,text\r\n1,\"a,\"\"b\"\"\r\nc\"\r\n2,\u044b\u20283,x\n4,y";
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        List<String[]> rows = new ArrayList<>();
+        IncrementalCsvParser parser = new IncrementalCsvParser(file, new CsvParseOptions().setHeader(true));
+        for (byte b : bytes) {
+            append(file, new byte[]{b});
+            parser.poll(rows::add);
+        }
+        assertArrayEquals(new String[]{"id", "text"}, parser.getHeader());
+        assertEquals(3, rows.size());
+        assertArrayEquals(new String[]{"1", "a,\"b\"\r\nc"}, rows.get(0));
+        assertArrayEquals(new String[]{"2", "\u044b"}, rows.get(1));
+        assertArrayEquals(new String[]{"3", "x"}, rows.get(2));
+        assertEquals(bytes.length - 3, parser.getOffset());
+    }
+
+    @Test
+    void testCheckpoint(@TempDir Path dir) throws IOException, ClassNotFoundException {
+        Path file = dir.resolve("log.csv");
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setColumns("b");
+        append(file, "a,b\n1,2\n3,\"4".getBytes(StandardCharsets.UTF_8));
+        List<String[]> rows = new ArrayList<>();
+        IncrementalCsvParser parser = new IncrementalCsvParser(file, options);
+        assertEquals(1, parser.poll(rows::add));
+        assertArrayEquals(new String[]{"b"}, parser.getHeader());
+
+        ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(saved)) {
+            out.writeObject(parser.checkpoint());
+        }
+        IncrementalCsvParser.Checkpoint checkpoint;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved.toByteArray()))) {
+            checkpoint = (IncrementalCsvParser.Checkpoint) in.readObject();
+        }
+        assertEquals(8, checkpoint.getOffset());
+
+        append(file, "\n\"\n5,6\r\n".getBytes(StandardCharsets.UTF_8));
+        IncrementalCsvParser resumed = new IncrementalCsvParser(file, options, checkpoint);
+        assertEquals(2, resumed.poll(rows::add));
+        assertArrayEquals(new String[]{"2"}, rows.get(0));
+        assertArrayEquals(new String[]{"4\n"}, rows.get(1));
+        assertArrayEquals(new String[]{"6"}, rows.get(2));
+        assertEquals(0, resumed.poll(rows::add));
+
+        append(file, "7\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(ParseException.class, () -> resumed.poll(rows::add));
+
+        Files.write(file, new byte[0]);
+        assertThrows(IOException.class, () -> parser.poll(rows::add));
+    }
+
+    @Test
+    void testLenientErrorPositions(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("log.csv");
+        CsvErrorReport errors = new CsvErrorReport(10);
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setErrorReport(errors);
+        List<String[]> rows = new ArrayList<>();
+        append(file, "id,text\n1,\u044b\n2\n".getBytes(StandardCharsets.UTF_8));
+        IncrementalCsvParser parser = new IncrementalCsvParser(file, options);
+        assertEquals(1, parser.poll(rows::add));
+
+        append(file, "3,c\n4,d,e\n".getBytes(StandardCharsets.UTF_8));
+        IncrementalCsvParser resumed = new IncrementalCsvParser(file, options, parser.checkpoint());
+        assertEquals(1, resumed.poll(rows::add));
+
+        assertEquals(2, errors.getErrorCount());
+        CsvErrorReport.RowError first = errors.getErrors().get(0);
+        assertEquals(file.toString(), first.getSource());
+        assertEquals(3, first.getRow());
+        assertEquals(13, first.getOffset());
+        CsvErrorReport.RowError second = errors.getErrors().get(1);
+        assertEquals(5, second.getRow());
+        assertEquals(19, second.getOffset());
+    }
+
+    @Test
+    void testFailedPolls(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("log.csv");
+        CsvParseOptions options = new CsvParseOptions().setHeader(true);
+        append(file, "a,b\n1,2\n3\n".getBytes(StandardCharsets.UTF_8));
+        List<String[]> rows = new ArrayList<>();
+        IncrementalCsvParser parser = new IncrementalCsvParser(file, options);
+        assertThrows(ParseException.class, () -> parser.poll(rows::add));
+        assertEquals(1, rows.size());
+        assertEquals(8, parser.getOffset());
+        assertThrows(ParseException.class, () -> parser.poll(rows::add));
+        assertEquals(1, rows.size());
+        IncrementalCsvParser resumed = new IncrementalCsvParser(file, options, parser.checkpoint());
+        assertArrayEquals(new String[]{"a", "b"}, resumed.getHeader());
+
+        Path other = dir.resolve("other.csv");
+        append(other, "a\r1\r3\r5\r".getBytes(StandardCharsets.UTF_8));
+        List<String> values = new ArrayList<>();
+        IncrementalCsvParser failing = new IncrementalCsvParser(other, options);
+        assertThrows(IllegalStateException.class, () -> failing.poll(row -> {
+            if (values.size() == 2) {
+                throw new IllegalStateException("Consumer failed");
+            }
+            values.add(row[0]);
+        }));
+        assertEquals(6, failing.getOffset());
+        append(other, "\n7\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(2, failing.poll(row -> values.add(row[0])));
+        assertEquals(List.of("1", "3", "5", "7"), values);
+    }
+}
@@ -0,0 +1,135 @@
+package com.vitos23.csvutils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class RowMapperTest {
+    private static final String SOURCE = "id;Qty;price;side;date;parent;flag;comment\n" +
+            "a1;10;1.5;BUY;2024-01-31;7;true;x\n" +
+            "\"a;2\";-3;;SELL;;;TRUE;\"say \"\"hi\"\"\"\n" +
+            "a3;0;1e3;BUY;2000-02-29;;false;\n";
+
+    enum Side {
+        BUY, SELL
+    }
+
+    static class Trade {
+        static int instances;
+
+        String id;
+        int qty;
+        double price;
+        Side side;
+        LocalDate date;
+        Long parent;
+        boolean flag;
+        transient String comment;
+        String unbound = "default";
+
+        private Trade() {
+            instances++;
+        }
+    }
+
+    static class Amount {
+        BigDecimal price;
+    }
+
+    @Test
+    void testClass() {
+        CsvParseOptions options = new CsvParseOptions().setHeader(true).setDelimiter(";");
+        List<Trade> trades = CsvParser.parse(SOURCE, options).toObjects(Trade.class);
+        assertEquals(3, trades.size());
+        Trade first = trades.get(0);
+        assertEquals("a1", first.id);
+        assertEquals(10, first.qty);
+        assertEquals(1.5, first.price);
+        assertEquals(Side.BUY, first.side);
+        assertEquals(LocalDate.of(2024, 1, 31), first.date);
+        assertEquals(7L, first.parent);
+        assertTrue(first.flag);
+        assertNull(first.comment);
+        assertEquals("default", first.unbound);
+        Trade second = trades.get(1);
+        assertEquals("a;2", second.id);
+        assertEquals(-3, second.qty);
+        assertEquals(0, second.price);
+        assertNull(second.date);
+        assertNull(second.parent);
+        assertTrue(second.flag);
+        assertEquals(1000, trades.get(2).price);
+
+        List<Trade> parsed = CsvParser.parseObjects(SOURCE, options, Trade.class);
+        List<Trade> read = new CsvReader(new StringReader(SOURCE), options).stream(Trade.class)
+                .collect(Collectors.toList());
+        for (List<Trade> other : List.of(parsed, read)) {
+            assertEquals(trades.size(), other.size());
+            for (int i = 0; i < trades.size(); i++) {
+                assertEquals(trades.get(i).id, other.get(i).id);
+                assertEquals(trades.get(i).qty, other.get(i).qty);
+                assertEquals(trades.get(i).date, other.get(i).date);
+            }
+        }
+
+        RowMapper<Amount> amounts = RowMapper.of(Amount.class, new String[]{"id", "PRICE"});
+        assertEquals(new BigDecimal("12.50"), amounts.map(new String[]{"x", "12.50"}).price);
+
+        CsvTable names = new CsvTable(new String[]{"id"}, new String[][]{{null}, {""}});
+        List<Trade> mapped = RowMapper.of(Trade.class, names).mapAll(names);
+        assertNull(mapped.get(0).id);
+        assertEquals("", mapped.get(1).id);
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> RowMapper.of(Trade.class, new String[]{"a", "b"}));
+        assertThrows(IllegalArgumentException.class, () -> CsvParser.parse("id\n1", false).toObjects(Trade.class));
+        assertThrows(NumberFormatException.class, () -> CsvParser.parseObjects(
+                "id,qty\n1,x\n", new CsvParseOptions().setHeader(true), Trade.class
+        ));
+        assertThrows(IllegalArgumentException.class, () -> CsvParser.parseObjects(
+                "side\nHOLD\n", new CsvParseOptions().setHeader(true), Trade.class
+        ));
+    }
+
+    @Test
+    void testRecord(@TempDir Path dir) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(Runtime.version().feature() >= 16 && compiler != null, "Records aren't supported");
+        Path source = dir.resolve("Point.java");
+        Files.write(source, "public record Point(String name, int x, Double y) {}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, compiler.run(null, null, null, source.toString()));
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()})) {
+            Class<?> point = loader.loadClass("Point");
+            List<?> points = CsvParser.parseObjects(
+                    "y,x,name,z\n1.5,1,a,0\n,-2,\"b\"\"\",0\n", new CsvParseOptions().setHeader(true), point
+            );
+            assertEquals(2, points.size());
+            assertEquals("Point[name=a, x=1, y=1.5]", points.get(0).toString());
+            assertEquals("Point[name=b\", x=-2, y=null]", points.get(1).toString());
+            Method x = point.getMethod("x");
+            assertEquals(-2, x.invoke(points.get(1)));
+            assertThrows(IllegalArgumentException.class, () -> RowMapper.of(point, new String[]{"name", "x"}));
+        }
+    }
+}